@@ -0,0 +1,83 @@
+#!/usr/bin/env bash
+# Startup time and RSS of every startup mode (jvm, cds, native) with the fast-start profile, the jvm mode additionally
+# with the default profile (the AOT processed cds and native images only start with the profiles they were built for).
+# Median of RUNS cold starts against a throwaway Postgres, taken from the "Startup report" log line (StartupReport).
+# Usage: ./gradlew bootJar -Paot && scripts/startup-report.sh [runs]
+# The report is written to build/reports/startup/report.txt
+set -euo pipefail
+
+RUNS=${1:-5}
+NETWORK=weather-startup
+DATABASE=weather-startup-db
+APP=weather-startup-app
+REPORT_DIR=build/reports/startup
+REPORT="$REPORT_DIR/report.txt"
+
+cleanup() {
+  docker rm -f "$APP" "$DATABASE" > /dev/null 2>&1 || true
+  docker network rm "$NETWORK" > /dev/null 2>&1 || true
+}
+trap cleanup EXIT
+
+median() {
+  sort -n | awk '{ values[NR] = $1 } END { print values[int((NR + 1) / 2)] }'
+}
+
+docker build --target jvm -t weather-backend:jvm .
+docker build --target cds -t weather-backend:cds .
+docker build -f Dockerfile.native -t weather-backend:native .
+
+docker network create "$NETWORK" > /dev/null
+docker run -d --name "$DATABASE" --network "$NETWORK" -e POSTGRES_DB=weather -e POSTGRES_USER=weather \
+  -e POSTGRES_PASSWORD=weather postgres:16-alpine > /dev/null
+until docker exec "$DATABASE" pg_isready -U weather > /dev/null 2>&1; do
+  sleep 1
+done
+
+mkdir -p "$REPORT_DIR"
+printf '%-8s %-12s %14s %16s %10s\n' mode profile "ready (ms)" "process (ms)" "rss (MB)" > "$REPORT"
+
+# the default profile runs first, so the schema exists for fast-start (ddl-auto=none)
+for profile in default fast-start; do
+  for mode in jvm cds native; do
+    if [ "$mode" != jvm ] && [ "$profile" != fast-start ]; then
+      continue
+    fi
+    ready=()
+    process=()
+    rss=()
+    for _ in $(seq "$RUNS"); do
+      docker run -d --name "$APP" --network "$NETWORK" --memory 512m \
+        -e SPRING_PROFILES_ACTIVE="$profile" \
+        -e SPRING_DATASOURCE_URL="jdbc:postgresql://$DATABASE:5432/weather" \
+        -e DB_HOST="$DATABASE" -e DB_PORT=5432 -e DB_NAME=weather -e DB_USERNAME=weather -e DB_PASSWORD=weather \
+        -e AVWX_TOKEN=startup-report -e FORECAST_PREFETCH_ENABLED=false \
+        "weather-backend:$mode" > /dev/null
+
+      line=""
+      for _ in $(seq 120); do
+        line=$(docker logs "$APP" 2>&1 | grep -m 1 "Startup report" || true)
+        if [ -n "$line" ]; then
+          break
+        fi
+        sleep 0.5
+      done
+      docker rm -f "$APP" > /dev/null
+      if [ -z "$line" ]; then
+        echo "$mode ($profile) did not start within 60 s" >&2
+        exit 1
+      fi
+
+      ready+=("$(sed -E 's/.*ready in ([0-9]+) ms.*/\1/' <<< "$line")")
+      process+=("$(sed -E 's/.*process up ([0-9]+) ms.*/\1/' <<< "$line")")
+      rss+=("$(sed -E 's/.*rss (-?[0-9]+) MB.*/\1/' <<< "$line")")
+    done
+
+    printf '%-8s %-12s %14s %16s %10s\n' "$mode" "$profile" \
+      "$(printf '%s\n' "${ready[@]}" | median)" \
+      "$(printf '%s\n' "${process[@]}" | median)" \
+      "$(printf '%s\n' "${rss[@]}" | median)" >> "$REPORT"
+  done
+done
+
+cat "$REPORT"
@@ -0,0 +1,36 @@
+package hs_burgenland.weather.benchmarks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import hs_burgenland.weather.entities.ForecastSeries;
+import hs_burgenland.weather.entities.Location;
+import hs_burgenland.weather.services.OpenMeteoForecastParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decoding of one batched Open-Meteo response for 50 locations (the upstream chunk size of the user forecast endpoint).
+ */
+@State(Scope.Benchmark)
+public class BatchForecastDecodeBenchmark {
+    private static final int LOCATIONS = 50;
+
+    private final OpenMeteoForecastParser parser = new OpenMeteoForecastParser(new JsonFactory());
+    private final List<Location> locations = new ArrayList<>();
+    private String payload;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < LOCATIONS; i++) {
+            locations.add(Payloads.location(i + 1, 48.2 + i * 0.05, 16.38 - i * 0.07));
+        }
+        payload = Payloads.load("open-meteo-forecast-50-locations-1d.json");
+    }
+
+    @Benchmark
+    public List<ForecastSeries> streamingParser() throws IOException {
+        return parser.parse(locations, payload);
+    }
+}
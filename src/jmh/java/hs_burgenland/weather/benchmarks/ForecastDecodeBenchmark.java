@@ -0,0 +1,74 @@
+package hs_burgenland.weather.benchmarks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hs_burgenland.weather.entities.ForecastSeries;
+import hs_burgenland.weather.entities.Location;
+import hs_burgenland.weather.entities.WeatherRecord;
+import hs_burgenland.weather.services.OpenMeteoForecastParser;
+import org.apache.logging.log4j.util.InternalException;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decoding of a single Open-Meteo forecast, as done by WeatherForecastService for every cache miss.
+ * treeModel is the former JsonNode based decoding into WeatherRecords, kept as baseline. Both return the same
+ * ForecastSeries.
+ */
+@State(Scope.Benchmark)
+public class ForecastDecodeBenchmark {
+    @Param({"1", "7", "16"})
+    public int days;
+
+    private final OpenMeteoForecastParser parser = new OpenMeteoForecastParser(new JsonFactory());
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Location location = Payloads.location(1, 48.208_49, 16.372_08);
+    private String payload;
+
+    @Setup
+    public void setUp() {
+        payload = Payloads.load("open-meteo-forecast-" + days + "d.json");
+    }
+
+    @Benchmark
+    public ForecastSeries streamingParser() throws IOException {
+        return parser.parse(location, payload);
+    }
+
+    @Benchmark
+    public ForecastSeries treeModel() throws JsonProcessingException {
+        return ForecastSeries.of(processWeatherData(location, objectMapper.readTree(payload)));
+    }
+
+    // WeatherForecastService.processWeatherData before the streaming parser
+    private static List<WeatherRecord> processWeatherData(final Location location, final JsonNode jsonNode) {
+        if (jsonNode == null ||
+                Math.round(jsonNode.path("latitude").asDouble()) != Math.round(location.getLatitude())
+        || Math.round(jsonNode.path("longitude").asDouble()) != Math.round(location.getLongitude())) {
+            throw new InternalException("Error while processing location data. Wrong location.");
+        }
+
+        final List<WeatherRecord> weatherRecords = new ArrayList<>();
+
+        final JsonNode timeArray = jsonNode.path("hourly").path("time");
+        final JsonNode temperatureArray = jsonNode.path("hourly").path("temperature_2m");
+        final JsonNode humidityArray = jsonNode.path("hourly").path("relative_humidity_2m");
+
+        for (int i = 0; i < timeArray.size(); i++) {
+            weatherRecords
+                    .add(new WeatherRecord(
+                            LocalDateTime.parse(timeArray.get(i).asText(), DateTimeFormatter.ISO_LOCAL_DATE_TIME),
+                            temperatureArray.get(i).asDouble(),
+                            humidityArray.get(i).asInt()));
+        }
+
+        return weatherRecords;
+    }
+}
@@ -0,0 +1,46 @@
+package hs_burgenland.weather.benchmarks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hs_burgenland.weather.entities.ForecastSeries;
+import hs_burgenland.weather.entities.WeatherRecord;
+import hs_burgenland.weather.services.OpenMeteoForecastParser;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Response serialization of a forecast with the ObjectMapper configuration Spring MVC uses.
+ * weatherRecordList is the former List of WeatherRecord beans, kept as baseline.
+ */
+@State(Scope.Benchmark)
+public class ForecastEncodeBenchmark {
+    @Param({"1", "7", "16"})
+    public int days;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private ForecastSeries forecastSeries;
+    private List<WeatherRecord> weatherRecords;
+
+    @Setup
+    public void setUp() throws IOException {
+        forecastSeries = new OpenMeteoForecastParser(new JsonFactory())
+                .parse(Payloads.location(1, 48.208_49, 16.372_08), Payloads.load("open-meteo-forecast-" + days + "d.json"));
+        weatherRecords = new ArrayList<>(forecastSeries);
+    }
+
+    @Benchmark
+    public byte[] forecastSeries() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(forecastSeries);
+    }
+
+    @Benchmark
+    public byte[] weatherRecordList() throws JsonProcessingException {
+        return objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, WeatherRecord.class)).writeValueAsBytes(weatherRecords);
+    }
+}
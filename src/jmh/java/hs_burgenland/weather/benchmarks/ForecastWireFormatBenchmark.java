@@ -0,0 +1,92 @@
+package hs_burgenland.weather.benchmarks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hs_burgenland.weather.ProtobufMessageConverter;
+import hs_burgenland.weather.entities.ForecastSeries;
+import hs_burgenland.weather.services.OpenMeteoForecastParser;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encode cost of a 16 day forecast per response format, with the mappers Spring MVC uses for json, cbor and smile.
+ * The bytes on the wire of every format are printed once per fork.
+ */
+@State(Scope.Benchmark)
+public class ForecastWireFormatBenchmark {
+    private final ObjectMapper jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+    private final ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.smile().build();
+    private final ProtobufMessageConverter protobufConverter = new ProtobufMessageConverter();
+    private ForecastSeries forecastSeries;
+
+    @Setup
+    public void setUp() throws IOException {
+        forecastSeries = new OpenMeteoForecastParser(new JsonFactory())
+                .parse(Payloads.location(1, 48.208_49, 16.372_08), Payloads.load("open-meteo-forecast-16d.json"));
+
+        System.out.printf("%nbytes on the wire (%d hourly values): json %d, json+gzip %d, cbor %d, smile %d, "
+                        + "protobuf %d, protobuf+gzip %d%n", forecastSeries.size(), json().length, jsonGzip().length,
+                cbor().length, smile().length, protobuf().length, protobufGzip().length);
+    }
+
+    @Benchmark
+    public byte[] json() throws IOException {
+        return jsonMapper.writeValueAsBytes(forecastSeries);
+    }
+
+    // default deflate level, as used by Tomcat's response compression
+    @Benchmark
+    public byte[] jsonGzip() throws IOException {
+        return gzip(json());
+    }
+
+    @Benchmark
+    public byte[] cbor() throws IOException {
+        return cborMapper.writeValueAsBytes(forecastSeries);
+    }
+
+    @Benchmark
+    public byte[] smile() throws IOException {
+        return smileMapper.writeValueAsBytes(forecastSeries);
+    }
+
+    @Benchmark
+    public byte[] protobuf() throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        protobufConverter.write(forecastSeries, ProtobufMessageConverter.PROTOBUF, new HttpOutputMessage() {
+            private final HttpHeaders headers = new HttpHeaders();
+
+            @Override
+            public OutputStream getBody() {
+                return outputStream;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        });
+        return outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] protobufGzip() throws IOException {
+        return gzip(protobuf());
+    }
+
+    private static byte[] gzip(final byte[] bytes) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream)) {
+            gzipStream.write(bytes);
+        }
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,35 @@
+package hs_burgenland.weather.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Decoding of the geocoding and AVWX responses the way LocationService does it when a location is created.
+ */
+@State(Scope.Benchmark)
+public class LocationDecodeBenchmark {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private String geocodingPayload;
+    private String airportPayload;
+
+    @Setup
+    public void setUp() {
+        geocodingPayload = Payloads.load("geocoding-vienna.json");
+        airportPayload = Payloads.load("avwx-station-near-vienna.json");
+    }
+
+    @Benchmark
+    public String geocoding() throws JsonProcessingException {
+        final JsonNode jsonNode = objectMapper.readTree(geocodingPayload).path("results").get(0);
+        return jsonNode.path("name").asText() + "," + jsonNode.path("country").asText()
+                + jsonNode.path("latitude").asDouble() + jsonNode.path("longitude").asDouble()
+                + jsonNode.path("elevation").asDouble();
+    }
+
+    @Benchmark
+    public String airport() throws JsonProcessingException {
+        return objectMapper.readTree(airportPayload).get(0).path("station").path("icao").asText();
+    }
+}
@@ -0,0 +1,34 @@
+package hs_burgenland.weather.benchmarks;
+
+import hs_burgenland.weather.entities.Location;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+final class Payloads {
+    private Payloads() {
+    }
+
+    // upstream responses in src/jmh/resources/payloads, Open-Meteo forecasts are for Vienna starting 2025-02-13
+    static String load(final String name) {
+        try (InputStream inputStream = Payloads.class.getResourceAsStream("/payloads/" + name)) {
+            if (inputStream == null) {
+                throw new IllegalArgumentException("Unknown payload " + name);
+            }
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static Location location(final int id, final double latitude, final double longitude) {
+        final Location location = new Location();
+        location.setId(id);
+        location.setName("Location " + id);
+        location.setLatitude(latitude);
+        location.setLongitude(longitude);
+        return location;
+    }
+}
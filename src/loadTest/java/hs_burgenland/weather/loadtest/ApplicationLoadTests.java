@@ -0,0 +1,73 @@
+package hs_burgenland.weather.loadtest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Boots the application against local upstream stand-ins and drives the favorite and forecast endpoints.
+ * The report is logged and written to build/reports/load-test/report.txt. Run with ./gradlew loadTest.
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ApplicationLoadTests {
+    private static final LoadTestSettings SETTINGS = LoadTestSettings.fromSystemProperties();
+    private static final UpstreamStandIns UPSTREAMS = startUpstreams();
+
+    @LocalServerPort
+    private int port;
+
+    private static UpstreamStandIns startUpstreams() {
+        try {
+            return new UpstreamStandIns(SETTINGS.upstreamLatency(), SETTINGS.upstreamLatencyJitter(),
+                    SETTINGS.upstreamErrorRate());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void upstreamUrls(final DynamicPropertyRegistry registry) {
+        registry.add("url.geocoding", () -> UPSTREAMS.baseUrl() + "/geocoding/v1/search");
+        registry.add("url.avwx", () -> UPSTREAMS.baseUrl() + "/avwx/api/station/near/");
+        registry.add("url.openmeteo", () -> UPSTREAMS.baseUrl() + "/open-meteo/v1/forecast");
+        registry.add("token.avwx", () -> "load-test");
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("logging.level.hs_burgenland", () -> "INFO");
+    }
+
+    @AfterAll
+    static void stopUpstreams() {
+        UPSTREAMS.close();
+    }
+
+    @Test
+    void favoritesAndForecasts() throws IOException, InterruptedException {
+        final LoadDriver loadDriver = new LoadDriver("http://localhost:" + port, SETTINGS);
+        loadDriver.createUsers();
+
+        loadDriver.run(SETTINGS.warmup());
+        final MeterRegistry results = loadDriver.run(SETTINGS.duration());
+
+        final String report = LoadTestReport.create(SETTINGS, results, UPSTREAMS.requestCounts());
+        log.info("\n{}", report);
+        final Path reportFile = Path.of("build", "reports", "load-test", "report.txt");
+        Files.createDirectories(reportFile.getParent());
+        Files.writeString(reportFile, report, StandardCharsets.UTF_8);
+
+        assertTrue(loadDriver.favoriteCount() > 0, "No favorite was created.");
+    }
+}
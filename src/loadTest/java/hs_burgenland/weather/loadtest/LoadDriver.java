@@ -0,0 +1,147 @@
+package hs_burgenland.weather.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Closed-model load: every virtual user runs the weighted operation mix back to back for the given duration.
+ * Latencies are recorded per endpoint, once per status class (2xx, 4xx, 5xx, IO_ERROR) and once for all requests.
+ */
+class LoadDriver {
+    static final String TIMER = "loadtest.requests";
+    static final String ALL = "all";
+
+    private final String baseUrl;
+    private final LoadTestSettings settings;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Integer> userIds = new ArrayList<>();
+    private final List<Integer> favoriteIds = new CopyOnWriteArrayList<>();
+    private final AtomicInteger favoriteCounter = new AtomicInteger();
+    private final Operation[] weightedOperations;
+
+    LoadDriver(final String baseUrl, final LoadTestSettings settings) {
+        this.baseUrl = baseUrl;
+        this.settings = settings;
+        final List<Operation> operations = new ArrayList<>();
+        for (final Map.Entry<Operation, Integer> entry : settings.mix().entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                operations.add(entry.getKey());
+            }
+        }
+        weightedOperations = operations.toArray(new Operation[0]);
+    }
+
+    void createUsers() throws IOException, InterruptedException {
+        for (int i = 0; i < settings.userAccounts(); i++) {
+            final HttpResponse<String> response = send(HttpRequest.newBuilder(URI.create(baseUrl + "/users"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"firstname\":\"Load\",\"lastname\":\"User " + i + "\"}"))
+                    .build());
+            userIds.add(objectMapper.readTree(response.body()).path("id").asInt());
+        }
+    }
+
+    MeterRegistry run(final Duration duration) throws InterruptedException {
+        final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final long end = System.nanoTime() + duration.toNanos();
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < settings.users(); i++) {
+                users.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        execute(weightedOperations[ThreadLocalRandom.current().nextInt(weightedOperations.length)],
+                                meterRegistry);
+                    }
+                });
+            }
+        }
+        return meterRegistry;
+    }
+
+    private void execute(final Operation operation, final MeterRegistry meterRegistry) {
+        final HttpRequest request = request(operation);
+        if (request == null) {
+            return;
+        }
+        final long start = System.nanoTime();
+        String status;
+        try {
+            final HttpResponse<String> response = send(request);
+            status = response.statusCode() / 100 + "xx";
+            if (operation == Operation.CREATE_FAVORITE && response.statusCode() == 200) {
+                favoriteIds.add(objectMapper.readTree(response.body()).path("id").asInt());
+            }
+        } catch (IOException e) {
+            status = "IO_ERROR";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        final Duration latency = Duration.ofNanos(System.nanoTime() - start);
+        timer(meterRegistry, operation, status).record(latency);
+        timer(meterRegistry, operation, ALL).record(latency);
+    }
+
+    private HttpRequest request(final Operation operation) {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final int userId = userIds.get(random.nextInt(userIds.size()));
+        return switch (operation) {
+            case CREATE_FAVORITE -> HttpRequest.newBuilder(URI.create(baseUrl + "/favorites"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"location\":{\"name\":\"Town " + random.nextInt(settings.locationNames()) + "\"},"
+                                    + "\"user\":{\"id\":" + userId + "},"
+                                    + "\"name\":\"Favorite " + favoriteCounter.incrementAndGet() + "\"}"))
+                    .build();
+            case LIST_FAVORITES -> get("/favorites/user/" + userId);
+            case FORECAST -> favoriteIds.isEmpty() ? null
+                    : get("/weather/" + favoriteIds.get(random.nextInt(favoriteIds.size())));
+            case USER_FORECASTS -> get("/weather/user/" + userId);
+        };
+    }
+
+    private HttpRequest get(final String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private HttpResponse<String> send(final HttpRequest request) throws IOException, InterruptedException {
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    // percentiles over the whole run, not only the last few minutes
+    static Timer timer(final MeterRegistry meterRegistry, final Operation operation, final String status) {
+        return Timer.builder(TIMER)
+                .tag("endpoint", operation.endpoint())
+                .tag("status", status)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .percentilePrecision(2)
+                .distributionStatisticExpiry(Duration.ofDays(1))
+                .distributionStatisticBufferLength(1)
+                .register(meterRegistry);
+    }
+
+    int favoriteCount() {
+        return favoriteIds.size();
+    }
+}
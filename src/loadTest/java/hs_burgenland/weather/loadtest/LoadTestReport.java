@@ -0,0 +1,51 @@
+package hs_burgenland.weather.loadtest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+final class LoadTestReport {
+    private LoadTestReport() {
+    }
+
+    static String create(final LoadTestSettings settings, final MeterRegistry meterRegistry,
+                         final Map<String, Long> upstreamRequests) {
+        final StringBuilder report = new StringBuilder();
+        report.append(String.format("Load test: %d virtual users for %s, upstream latency %s + exp(%s), error rate %.3f%n",
+                settings.users(), settings.duration(), settings.upstreamLatency(), settings.upstreamLatencyJitter(),
+                settings.upstreamErrorRate()));
+        report.append(String.format("%-28s %8s %9s %8s %8s %8s %8s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "2xx", "4xx", "5xx", "io", "p50 ms", "p99 ms", "p999 ms"));
+
+        final double seconds = settings.duration().toMillis() / 1000.0;
+        for (final Operation operation : Operation.values()) {
+            final Timer all = meterRegistry.find(LoadDriver.TIMER)
+                    .tags("endpoint", operation.endpoint(), "status", LoadDriver.ALL).timer();
+            if (all == null) {
+                continue;
+            }
+            final Map<Double, Double> percentiles = new TreeMap<>();
+            for (final ValueAtPercentile value : all.takeSnapshot().percentileValues()) {
+                percentiles.put(value.percentile(), value.value(TimeUnit.MILLISECONDS));
+            }
+            report.append(String.format("%-28s %8d %9.1f %8d %8d %8d %8d %9.1f %9.1f %9.1f%n",
+                    operation.endpoint(), all.count(), all.count() / seconds,
+                    count(meterRegistry, operation, "2xx"), count(meterRegistry, operation, "4xx"),
+                    count(meterRegistry, operation, "5xx"), count(meterRegistry, operation, "IO_ERROR"),
+                    percentiles.getOrDefault(0.5, 0.0), percentiles.getOrDefault(0.99, 0.0),
+                    percentiles.getOrDefault(0.999, 0.0)));
+        }
+        report.append("Upstream requests: ").append(new TreeMap<>(upstreamRequests)).append(System.lineSeparator());
+        return report.toString();
+    }
+
+    private static long count(final MeterRegistry meterRegistry, final Operation operation, final String status) {
+        final Timer timer = meterRegistry.find(LoadDriver.TIMER)
+                .tags("endpoint", operation.endpoint(), "status", status).timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
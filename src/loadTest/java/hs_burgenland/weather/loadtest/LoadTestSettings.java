@@ -0,0 +1,36 @@
+package hs_burgenland.weather.loadtest;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Load test settings from system properties, passed through by ./gradlew loadTest -Ploadtest.&lt;name&gt;=&lt;value&gt;.
+ */
+record LoadTestSettings(Duration warmup, Duration duration, int users, int userAccounts, int locationNames,
+                        Duration upstreamLatency, Duration upstreamLatencyJitter, double upstreamErrorRate,
+                        Map<Operation, Integer> mix) {
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Duration.parse(System.getProperty("loadtest.warmup", "PT5S")),
+                Duration.parse(System.getProperty("loadtest.duration", "PT30S")),
+                Integer.parseInt(System.getProperty("loadtest.users", "32")),
+                Integer.parseInt(System.getProperty("loadtest.user-accounts", "20")),
+                Integer.parseInt(System.getProperty("loadtest.location-names", "500")),
+                Duration.parse(System.getProperty("loadtest.upstream.latency", "PT0.05S")),
+                Duration.parse(System.getProperty("loadtest.upstream.latency-jitter", "PT0.02S")),
+                Double.parseDouble(System.getProperty("loadtest.upstream.error-rate", "0.01")),
+                parseMix(System.getProperty("loadtest.mix", "createFavorite:1,listFavorites:3,forecast:10,userForecasts:2")));
+    }
+
+    // operation:weight pairs, e.g. createFavorite:1,forecast:10
+    private static Map<Operation, Integer> parseMix(final String mix) {
+        final Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for (final String entry : mix.split(",")) {
+            final String[] parts = entry.trim().split(":");
+            weights.put(Operation.fromName(parts[0]), Integer.parseInt(parts[1]));
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,29 @@
+package hs_burgenland.weather.loadtest;
+
+import java.util.Arrays;
+
+enum Operation {
+    CREATE_FAVORITE("createFavorite", "POST /favorites"),
+    LIST_FAVORITES("listFavorites", "GET /favorites/user/{id}"),
+    FORECAST("forecast", "GET /weather/{favoriteId}"),
+    USER_FORECASTS("userForecasts", "GET /weather/user/{userId}");
+
+    private final String name;
+    private final String endpoint;
+
+    Operation(final String name, final String endpoint) {
+        this.name = name;
+        this.endpoint = endpoint;
+    }
+
+    String endpoint() {
+        return endpoint;
+    }
+
+    static Operation fromName(final String name) {
+        return Arrays.stream(values())
+                .filter(operation -> operation.name.equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown load test operation " + name));
+    }
+}
@@ -0,0 +1,165 @@
+package hs_burgenland.weather.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process stand-ins for the geocoding, AVWX and Open-Meteo apis. Every response is delayed by the base latency
+ * plus an exponentially distributed jitter, and fails with 503 at the configured error rate.
+ * Geocoding answers deterministic, distinct coordinates for names ending in a number ("Town 42").
+ */
+public class UpstreamStandIns implements AutoCloseable {
+    private static final LocalDateTime FORECAST_START = LocalDateTime.of(2025, 2, 13, 0, 0);
+
+    private final HttpServer server;
+    private final Duration latency;
+    private final Duration latencyJitter;
+    private final double errorRate;
+    private final Map<String, LongAdder> requestCounts = new ConcurrentHashMap<>();
+
+    public UpstreamStandIns(final Duration latency, final Duration latencyJitter, final double errorRate)
+            throws IOException {
+        this.latency = latency;
+        this.latencyJitter = latencyJitter;
+        this.errorRate = errorRate;
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/geocoding/v1/search", exchange -> handle(exchange, "geocoding", this::geocoding));
+        server.createContext("/avwx/api/station/near/", exchange -> handle(exchange, "avwx", this::airport));
+        server.createContext("/open-meteo/v1/forecast", exchange -> handle(exchange, "open-meteo", this::forecast));
+        server.start();
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public Map<String, Long> requestCounts() {
+        final Map<String, Long> counts = new HashMap<>();
+        requestCounts.forEach((upstream, count) -> counts.put(upstream, count.sum()));
+        return counts;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(final HttpExchange exchange, final String upstream, final ResponseBody responseBody)
+            throws IOException {
+        requestCounts.computeIfAbsent(upstream, key -> new LongAdder()).increment();
+        try {
+            delay();
+            if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            final byte[] body = responseBody.create(exchange).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void delay() {
+        final long jitterNanos = latencyJitter.isZero() ? 0
+                : (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * latencyJitter.toNanos());
+        try {
+            Thread.sleep(latency.plusNanos(jitterNanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String geocoding(final HttpExchange exchange) {
+        final String name = queryParameters(exchange).getOrDefault("name", "");
+        final int number = trailingNumber(name);
+        final double latitude = 46.5 + (number % 50) * 0.05;
+        final double longitude = 9.6 + (number / 50) * 0.1;
+        return "{\"results\":[{\"name\":\"" + name.replace("\"", "") + "\",\"latitude\":" + latitude
+                + ",\"longitude\":" + longitude + ",\"elevation\":300.0,\"country\":\"Austria\"}],"
+                + "\"generationtime_ms\":0.5}";
+    }
+
+    private String airport(final HttpExchange exchange) {
+        return "[{\"coordinate_distance\":0.2,\"station\":{\"icao\":\"LOWW\",\"name\":\"Stand-in station\"}}]";
+    }
+
+    private String forecast(final HttpExchange exchange) {
+        final Map<String, String> parameters = queryParameters(exchange);
+        final String[] latitudes = parameters.getOrDefault("latitude", "0").split(",");
+        final String[] longitudes = parameters.getOrDefault("longitude", "0").split(",");
+        if (latitudes.length == 1) {
+            return forecastObject(latitudes[0], longitudes[0]);
+        }
+        final StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < latitudes.length; i++) {
+            body.append(i == 0 ? "" : ",").append(forecastObject(latitudes[i], longitudes[i]));
+        }
+        return body.append(']').toString();
+    }
+
+    private static String forecastObject(final String latitude, final String longitude) {
+        final StringBuilder times = new StringBuilder();
+        final StringBuilder temperatures = new StringBuilder();
+        final StringBuilder humidities = new StringBuilder();
+        for (int hour = 0; hour < 24; hour++) {
+            final String separator = hour == 0 ? "" : ",";
+            times.append(separator).append('"').append(FORECAST_START.plusHours(hour)).append('"');
+            temperatures.append(separator).append(Math.round(Math.sin(hour / 24.0 * 2 * Math.PI) * 50) / 10.0);
+            humidities.append(separator).append(70 + hour);
+        }
+        return "{\"latitude\":" + latitude + ",\"longitude\":" + longitude + ",\"generationtime_ms\":0.04,"
+                + "\"utc_offset_seconds\":0,\"timezone\":\"GMT\",\"elevation\":300.0,"
+                + "\"hourly_units\":{\"time\":\"iso8601\",\"temperature_2m\":\"°C\",\"relative_humidity_2m\":\"%\"},"
+                + "\"hourly\":{\"time\":[" + times + "],\"temperature_2m\":[" + temperatures
+                + "],\"relative_humidity_2m\":[" + humidities + "]}}";
+    }
+
+    private static Map<String, String> queryParameters(final HttpExchange exchange) {
+        final Map<String, String> parameters = new HashMap<>();
+        final String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return parameters;
+        }
+        for (final String parameter : query.split("&")) {
+            final int separator = parameter.indexOf('=');
+            if (separator > 0) {
+                parameters.putIfAbsent(parameter.substring(0, separator),
+                        URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    private static int trailingNumber(final String name) {
+        int start = name.length();
+        while (start > 0 && Character.isDigit(name.charAt(start - 1))) {
+            start--;
+        }
+        return start == name.length() ? Math.floorMod(name.hashCode(), 2500) : Integer.parseInt(name.substring(start));
+    }
+
+    @FunctionalInterface
+    private interface ResponseBody {
+        String create(HttpExchange exchange);
+    }
+}
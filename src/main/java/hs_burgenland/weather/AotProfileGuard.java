@@ -0,0 +1,72 @@
+package hs_burgenland.weather;
+
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotContribution;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Spring AOT evaluates the bean conditions ({@code @Profile}, {@code @ConditionalOnThreading}, ...) once at build
+ * time, so a profile activated later cannot change which beans exist. The profiles the build was processed with
+ * are recorded in the jar (or native image), and a start with generated artifacts and other active profiles fails
+ * instead of silently running e.g. the platform thread beans with {@code SPRING_PROFILES_ACTIVE=virtual}.
+ */
+public class AotProfileGuard implements BeanFactoryInitializationAotProcessor,
+        ApplicationListener<ApplicationEnvironmentPreparedEvent> {
+    static final String RESOURCE = "META-INF/aot-profiles.properties";
+    private static final String PROFILES = "profiles";
+
+    @Override
+    public BeanFactoryInitializationAotContribution processAheadOfTime(
+            final ConfigurableListableBeanFactory beanFactory) {
+        final String profiles = String.join(",", profiles(beanFactory.getBean(Environment.class)));
+        return (generationContext, code) -> generationContext.getGeneratedFiles()
+                .addResourceFile(RESOURCE, PROFILES + "=" + profiles + "\n");
+    }
+
+    @Override
+    public void onApplicationEvent(final ApplicationEnvironmentPreparedEvent event) {
+        if (!AotDetector.useGeneratedArtifacts()) {
+            return;
+        }
+        check(buildProfiles(new ClassPathResource(RESOURCE)), profiles(event.getEnvironment()));
+    }
+
+    static void check(final Set<String> buildProfiles, final Set<String> activeProfiles) {
+        if (!buildProfiles.equals(activeProfiles)) {
+            throw new IllegalStateException("The AOT processed beans were built for the profiles " + buildProfiles
+                    + " but " + activeProfiles + " are active. Start with SPRING_PROFILES_ACTIVE="
+                    + String.join(",", buildProfiles) + ", without -Dspring.aot.enabled=true or use an image built with"
+                    + " ./gradlew bootJar -Paot -PaotProfiles=" + String.join(",", activeProfiles));
+        }
+    }
+
+    static Set<String> buildProfiles(final Resource resource) {
+        if (!resource.exists()) {
+            throw new IllegalStateException(RESOURCE + " is missing, the AOT build did not record its profiles");
+        }
+        try {
+            return new TreeSet<>(StringUtils.commaDelimitedListToSet(
+                    PropertiesLoaderUtils.loadProperties(resource).getProperty(PROFILES, "").trim()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Set<String> profiles(final Environment environment) {
+        return new TreeSet<>(Arrays.asList(environment.getActiveProfiles()));
+    }
+}
@@ -0,0 +1,28 @@
+package hs_burgenland.weather;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Responses are written as JSON, CBOR (application/cbor) or Smile (application/x-jackson-smile) by the Jackson
+ * converters Spring MVC registers for the dataformats on the classpath, forecasts and favorite listings also as
+ * Protobuf (application/x-protobuf). JSON stays the default for Accept: *&#47;*.
+ */
+@Configuration
+public class ContentNegotiationConfig {
+
+    @Bean
+    public WebMvcConfigurer protobufConfigurer() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void extendMessageConverters(final List<HttpMessageConverter<?>> converters) {
+                // last, so it is only chosen when protobuf is asked for explicitly
+                converters.add(new ProtobufMessageConverter());
+            }
+        };
+    }
+}
@@ -0,0 +1,51 @@
+package hs_burgenland.weather;
+
+import hs_burgenland.weather.entities.Location;
+import hs_burgenland.weather.entities.User;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Hit ratios of the user and location regions of the second-level cache and of the query cache.
+ * Hit, miss and put counts per region come from Spring Boot's Hibernate metrics (hibernate-micrometer).
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.jpa.properties.hibernate.cache.use_second_level_cache", havingValue = "true")
+public class HibernateCacheConfig {
+    static final String REGION_HIT_RATIO = "hibernate.second.level.cache.hit.ratio";
+    static final String QUERY_HIT_RATIO = "hibernate.query.cache.hit.ratio";
+
+    @Bean
+    public MeterBinder hibernateCacheMetrics(final EntityManagerFactory entityManagerFactory) {
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return registry -> {
+            for (final String region : List.of(User.CACHE_REGION, Location.CACHE_REGION)) {
+                Gauge.builder(REGION_HIT_RATIO, statistics, stats -> regionHitRatio(stats, region))
+                        .tag("region", region)
+                        .register(registry);
+            }
+            Gauge.builder(QUERY_HIT_RATIO, statistics,
+                    stats -> hitRatio(stats.getQueryCacheHitCount(), stats.getQueryCacheMissCount()))
+                    .register(registry);
+        };
+    }
+
+    private static double regionHitRatio(final Statistics statistics, final String region) {
+        final CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+        return hitRatio(regionStatistics.getHitCount(), regionStatistics.getMissCount());
+    }
+
+    // NaN until the first lookup, so an idle cache does not show up as a cold one
+    static double hitRatio(final long hits, final long misses) {
+        return hits + misses == 0 ? Double.NaN : (double) hits / (hits + misses);
+    }
+}
@@ -0,0 +1,191 @@
+package hs_burgenland.weather;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import hs_burgenland.weather.entities.FavoriteForecast;
+import hs_burgenland.weather.entities.FavoriteSummary;
+import hs_burgenland.weather.entities.ForecastSeries;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Writes forecasts and favorite listings as application/x-protobuf, the messages are defined in
+ * src/main/proto/weather.proto. They are encoded by hand with CodedOutputStream, so no classes are generated.
+ * Lists are only writable when the declared type names a favorite element, so other listings (and the
+ * ResponseEntity<?> listings with pages) are answered with 406 instead of failing while they are written.
+ * Reading is not supported.
+ */
+public class ProtobufMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+    public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+    private static final List<Class<?>> ELEMENT_TYPES = List.of(FavoriteSummary.class, FavoriteForecast.class);
+
+    public ProtobufMessageConverter() {
+        super(PROTOBUF);
+    }
+
+    // without the declared type the element type of a list is unknown
+    @Override
+    protected boolean supports(final Class<?> clazz) {
+        return ForecastSeries.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canWrite(final Type type, final Class<?> clazz, final MediaType mediaType) {
+        if (!canWrite(mediaType)) {
+            return false;
+        }
+        if (supports(clazz)) {
+            return true;
+        }
+
+        if (!List.class.isAssignableFrom(clazz)) {
+            return false;
+        }
+        final ResolvableType declaredType = type == null ? ResolvableType.forClass(clazz) : ResolvableType.forType(type);
+        final Class<?> elementType = declaredType.as(List.class).resolveGeneric(0);
+        return elementType != null && ELEMENT_TYPES.stream().anyMatch(writable -> writable.isAssignableFrom(elementType));
+    }
+
+    @Override
+    public boolean canRead(final Class<?> clazz, final MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(final Type type, final Class<?> contextClass, final MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public Object read(final Type type, final Class<?> contextClass, final HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf requests are not supported.", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(final Class<?> clazz, final HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf requests are not supported.", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(final Object object, final Type type, final HttpOutputMessage outputMessage)
+            throws IOException {
+        final CodedOutputStream output = CodedOutputStream.newInstance(outputMessage.getBody());
+        // a ForecastSeries is a List as well
+        if (object instanceof ForecastSeries forecastSeries) {
+            writeForecastSeries(output, forecastSeries);
+        } else {
+            writeList(output, (List<?>) object);
+        }
+        output.flush();
+    }
+
+    // FavoriteList and FavoriteForecastList both hold their elements in field 1
+    private static void writeList(final CodedOutputStream output, final List<?> elements) throws IOException {
+        for (final Object element : elements) {
+            if (!(element instanceof FavoriteSummary || element instanceof FavoriteForecast)) {
+                throw new HttpMessageNotWritableException("No protobuf message for "
+                        + element.getClass().getSimpleName() + ".");
+            }
+        }
+        for (final Object element : elements) {
+            if (element instanceof FavoriteForecast favoriteForecast) {
+                writeMessage(output, 1, nested -> writeFavoriteForecast(nested, favoriteForecast));
+            } else {
+                writeMessage(output, 1, nested -> writeFavorite(nested, (FavoriteSummary) element));
+            }
+        }
+    }
+
+    static void writeForecastSeries(final CodedOutputStream output, final ForecastSeries forecastSeries)
+            throws IOException {
+        output.writeInt64(1, forecastSeries.getStartEpochSecond());
+        output.writeInt32(2, forecastSeries.getStepSeconds());
+        if (!forecastSeries.isEmpty()) {
+            // packed repeated fields: one length-delimited field holding all values
+            output.writeTag(3, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(forecastSeries.size() * Float.BYTES);
+            for (int i = 0; i < forecastSeries.size(); i++) {
+                output.writeFloatNoTag(forecastSeries.getTemperature(i));
+            }
+
+            int humiditiesSize = 0;
+            for (int i = 0; i < forecastSeries.size(); i++) {
+                humiditiesSize += CodedOutputStream.computeInt32SizeNoTag(forecastSeries.getHumidity(i));
+            }
+            output.writeTag(4, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(humiditiesSize);
+            for (int i = 0; i < forecastSeries.size(); i++) {
+                output.writeInt32NoTag(forecastSeries.getHumidity(i));
+            }
+        }
+        output.writeBool(5, forecastSeries.isStale());
+    }
+
+    private static void writeFavoriteForecast(final CodedOutputStream output, final FavoriteForecast favoriteForecast)
+            throws IOException {
+        output.writeInt32(1, favoriteForecast.getFavoriteId());
+        writeString(output, 2, favoriteForecast.getName());
+        if (favoriteForecast.getForecast() != null) {
+            writeMessage(output, 3, nested -> writeForecastSeries(nested, favoriteForecast.getForecast()));
+        }
+    }
+
+    private static void writeFavorite(final CodedOutputStream output, final FavoriteSummary favorite)
+            throws IOException {
+        output.writeInt32(1, favorite.getId());
+        writeString(output, 2, favorite.getName());
+        final FavoriteSummary.UserSummary user = favorite.getUser();
+        if (user != null) {
+            writeMessage(output, 3, nested -> {
+                nested.writeInt32(1, user.getId());
+                writeString(nested, 2, user.getFirstname());
+                writeString(nested, 3, user.getLastname());
+            });
+        }
+        final FavoriteSummary.LocationSummary location = favorite.getLocation();
+        if (location != null) {
+            writeMessage(output, 4, nested -> {
+                nested.writeInt32(1, location.getId());
+                nested.writeDouble(2, location.getLatitude());
+                nested.writeDouble(3, location.getLongitude());
+                nested.writeDouble(4, location.getElevation());
+                writeString(nested, 5, location.getName());
+                writeString(nested, 6, location.getIcao());
+            });
+        }
+    }
+
+    // absent strings are left out, proto3 reads them as empty
+    private static void writeString(final CodedOutputStream output, final int fieldNumber, final String value)
+            throws IOException {
+        if (value != null) {
+            output.writeString(fieldNumber, value);
+        }
+    }
+
+    // nested messages are length-prefixed, so they are encoded into a buffer first
+    private static void writeMessage(final CodedOutputStream output, final int fieldNumber,
+                                     final MessageWriter writer) throws IOException {
+        final ByteString.Output buffer = ByteString.newOutput();
+        final CodedOutputStream nested = CodedOutputStream.newInstance(buffer);
+        writer.writeTo(nested);
+        nested.flush();
+        output.writeBytes(fieldNumber, buffer.toByteString());
+    }
+
+    @FunctionalInterface
+    private interface MessageWriter {
+        void writeTo(CodedOutputStream output) throws IOException;
+    }
+}
@@ -0,0 +1,27 @@
+package hs_burgenland.weather;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Executors;
+
+@Configuration
+public class SchedulerConfig {
+
+    // JPA repositories block, reactive pipelines hop onto this scheduler before touching them
+    @Bean(name = "blockingScheduler")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public Scheduler platformBlockingScheduler() {
+        return Schedulers.boundedElastic();
+    }
+
+    @Bean(name = "blockingScheduler", destroyMethod = "dispose")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public Scheduler virtualBlockingScheduler() {
+        return Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), "virtual-blocking");
+    }
+}
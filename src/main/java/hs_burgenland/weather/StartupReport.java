@@ -0,0 +1,60 @@
+package hs_burgenland.weather;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aot.AotDetector;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.NativeDetector;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Logs the startup mode (jvm, aot, cds, native), the startup time and the resident set size once the
+ * application is ready. scripts/startup-report.sh collects these lines for every mode.
+ */
+@Slf4j
+@Component
+public class StartupReport {
+    private static final Path PROC_STATUS = Path.of("/proc/self/status");
+    private static final String RSS_FIELD = "VmRSS:";
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report(final ApplicationReadyEvent event) {
+        final long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        log.info("Startup report: mode={}, ready in {} ms, process up {} ms, rss {} MB", mode(),
+                event.getTimeTaken() == null ? uptime : event.getTimeTaken().toMillis(), uptime,
+                residentSetMegabytes(PROC_STATUS));
+    }
+
+    private static String mode() {
+        if (NativeDetector.inNativeImage()) {
+            return "native";
+        }
+        return mode(AotDetector.useGeneratedArtifacts(), ManagementFactory.getRuntimeMXBean().getInputArguments());
+    }
+
+    static String mode(final boolean aot, final List<String> jvmArguments) {
+        final boolean cds = jvmArguments.stream().anyMatch(argument -> argument.startsWith("-XX:SharedArchiveFile"));
+        return (aot ? "aot" : "jvm") + (cds ? "+cds" : "");
+    }
+
+    // -1 where there is no procfs
+    static long residentSetMegabytes(final Path statusFile) {
+        try (Stream<String> lines = Files.lines(statusFile)) {
+            return lines.filter(line -> line.startsWith(RSS_FIELD))
+                    .mapToLong(line -> Long.parseLong(line.substring(RSS_FIELD.length()).replace("kB", "").trim()))
+                    .map(kilobytes -> kilobytes / 1024)
+                    .findFirst()
+                    .orElse(-1);
+        } catch (IOException | UncheckedIOException e) {
+            return -1;
+        }
+    }
+}
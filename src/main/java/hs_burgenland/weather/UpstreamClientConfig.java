@@ -0,0 +1,137 @@
+package hs_burgenland.weather;
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * One WebClient per upstream API, each with its own connection pool so a slow upstream cannot
+ * exhaust the connections of the others. Responses are requested gzip compressed, idle and old
+ * connections are evicted in the background and resolved host names are cached.
+ * Calls are isolated per upstream by a bulkhead and a circuit breaker, failed calls are retried with jittered backoff.
+ */
+@Configuration
+@EnableConfigurationProperties(UpstreamClientProperties.class)
+public class UpstreamClientConfig {
+
+    @Bean
+    public WebClient geocodingWebClient(final WebClient.Builder builder, final UpstreamClientProperties properties) {
+        return createWebClient(builder, "geocoding", properties.getGeocoding(), properties);
+    }
+
+    @Bean
+    public WebClient avwxWebClient(final WebClient.Builder builder, final UpstreamClientProperties properties) {
+        return createWebClient(builder, "avwx", properties.getAvwx(), properties);
+    }
+
+    @Bean
+    public WebClient openMeteoWebClient(final WebClient.Builder builder, final UpstreamClientProperties properties) {
+        return createWebClient(builder, "open-meteo", properties.getOpenMeteo(), properties);
+    }
+
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry() {
+        return CircuitBreakerRegistry.ofDefaults();
+    }
+
+    @Bean
+    public BulkheadRegistry bulkheadRegistry() {
+        return BulkheadRegistry.ofDefaults();
+    }
+
+    @Bean
+    public MeterBinder circuitBreakerMetrics(final CircuitBreakerRegistry circuitBreakerRegistry) {
+        return TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry);
+    }
+
+    @Bean
+    public MeterBinder bulkheadMetrics(final BulkheadRegistry bulkheadRegistry) {
+        return TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry);
+    }
+
+    // only failures that say something about the health of the upstream open the breaker, 4xx answers do not
+    public static CircuitBreakerConfig createCircuitBreakerConfig(final UpstreamClientProperties.Client client) {
+        return CircuitBreakerConfig.custom()
+                .failureRateThreshold(client.getFailureRateThreshold())
+                .slowCallRateThreshold(client.getSlowCallRateThreshold())
+                .slowCallDurationThreshold(client.getSlowCallDurationThreshold())
+                .slidingWindowSize(client.getSlidingWindowSize())
+                .minimumNumberOfCalls(client.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(client.getWaitDurationInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(client.getPermittedCallsInHalfOpenState())
+                .recordException(UpstreamClientConfig::isUpstreamFailure)
+                .build();
+    }
+
+    // a full bulkhead rejects right away, waiting for a permit would block the calling thread
+    public static BulkheadConfig createBulkheadConfig(final UpstreamClientProperties.Client client) {
+        return BulkheadConfig.custom()
+                .maxConcurrentCalls(client.getMaxConcurrentCalls())
+                .maxWaitDuration(Duration.ZERO)
+                .build();
+    }
+
+    public static Retry createRetry(final UpstreamClientProperties.Client client) {
+        return Retry.backoff(client.getMaxRetries(), client.getRetryBackoff())
+                .maxBackoff(client.getRetryMaxBackoff())
+                .jitter(client.getRetryJitter())
+                .filter(UpstreamClientConfig::isUpstreamFailure)
+                .onRetryExhaustedThrow((retrySpec, retrySignal) -> retrySignal.failure());
+    }
+
+    public static boolean isUpstreamFailure(final Throwable error) {
+        if (error instanceof WebClientResponseException responseException) {
+            return responseException.getStatusCode().is5xxServerError()
+                    || responseException.getStatusCode().value() == 429;
+        }
+        return !(error instanceof CallNotPermittedException) && !(error instanceof BulkheadFullException);
+    }
+
+    public static WebClient createWebClient(final WebClient.Builder builder, final String name,
+                                            final UpstreamClientProperties.Client client,
+                                            final UpstreamClientProperties properties) {
+        final ConnectionProvider connectionProvider = ConnectionProvider.builder(name)
+                .maxConnections(client.getMaxConnections())
+                .pendingAcquireTimeout(client.getPendingAcquireTimeout())
+                .maxIdleTime(client.getMaxIdleTime())
+                .maxLifeTime(client.getMaxLifeTime())
+                .evictInBackground(client.getEvictionInterval())
+                .metrics(true)
+                .build();
+
+        final HttpClient httpClient = HttpClient.create(connectionProvider)
+                .compress(true)
+                .keepAlive(true)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) client.getConnectTimeout().toMillis())
+                .responseTimeout(client.getResponseTimeout())
+                .resolver(spec -> spec
+                        .cacheMinTimeToLive(properties.getDnsCacheMinTtl())
+                        .cacheMaxTimeToLive(properties.getDnsCacheMaxTtl())
+                        .cacheNegativeTimeToLive(properties.getDnsCacheNegativeTtl()));
+        // event loops, native transport and the DNS resolver are initialized here instead of on the first request
+        httpClient.warmup().block();
+
+        return builder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
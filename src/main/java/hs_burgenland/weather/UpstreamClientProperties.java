@@ -0,0 +1,49 @@
+package hs_burgenland.weather;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Connection pool, timeout, DNS and resilience (bulkhead, circuit breaker, retry) settings
+ * of the upstream HTTP clients (upstream.* properties).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "upstream")
+public class UpstreamClientProperties {
+    private Client geocoding = new Client();
+    private Client avwx = new Client();
+    private Client openMeteo = new Client();
+    private Duration dnsCacheMinTtl = Duration.ofSeconds(30);
+    private Duration dnsCacheMaxTtl = Duration.ofMinutes(5);
+    private Duration dnsCacheNegativeTtl = Duration.ofSeconds(10);
+
+    @Getter
+    @Setter
+    public static class Client {
+        private int maxConnections = 50;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+        private Duration evictionInterval = Duration.ofSeconds(30);
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration responseTimeout = Duration.ofSeconds(10);
+        // off by default, tests and local runs make no requests at startup (enabled by the fast-start profile)
+        private boolean prewarm;
+        private int maxConcurrentCalls = 25;
+        private float failureRateThreshold = 50;
+        private float slowCallRateThreshold = 100;
+        private Duration slowCallDurationThreshold = Duration.ofSeconds(5);
+        private int slidingWindowSize = 20;
+        private int minimumNumberOfCalls = 10;
+        private Duration waitDurationInOpenState = Duration.ofSeconds(30);
+        private int permittedCallsInHalfOpenState = 3;
+        private int maxRetries = 2;
+        private Duration retryBackoff = Duration.ofMillis(200);
+        private Duration retryMaxBackoff = Duration.ofSeconds(2);
+        private double retryJitter = 0.5;
+    }
+}
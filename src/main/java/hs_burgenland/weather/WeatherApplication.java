@@ -2,11 +2,15 @@ package hs_burgenland.weather;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(WeatherRuntimeHints.class)
 public class WeatherApplication {
 
 	public static void main(final String[] args) {
-		SpringApplication.run(WeatherApplication.class, args);
+		final SpringApplication application = new SpringApplication(WeatherApplication.class);
+		application.addListeners(new AotProfileGuard());
+		application.run(args);
 	}
 }
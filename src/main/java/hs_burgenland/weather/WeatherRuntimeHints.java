@@ -0,0 +1,46 @@
+package hs_burgenland.weather;
+
+import hs_burgenland.weather.entities.Favorite;
+import hs_burgenland.weather.entities.FavoriteForecast;
+import hs_burgenland.weather.entities.FavoriteSummary;
+import hs_burgenland.weather.entities.ForecastSeries;
+import hs_burgenland.weather.entities.GeocodingResult;
+import hs_burgenland.weather.entities.KeysetPage;
+import hs_burgenland.weather.entities.Location;
+import hs_burgenland.weather.entities.LocationImportResult;
+import hs_burgenland.weather.entities.User;
+import hs_burgenland.weather.entities.WeatherRecord;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+/**
+ * Reflection and resource hints for the native image that Spring AOT cannot derive on its own:
+ * controllers return {@code ResponseEntity<?>}, so the Jackson bodies are unknown at build time, and the
+ * JPQL constructor expression, the JCache provider and the bundled files are looked up by name.
+ */
+public class WeatherRuntimeHints implements RuntimeHintsRegistrar {
+    static final String CACHING_PROVIDER = "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider";
+    static final String REGION_FACTORY = "org.hibernate.cache.jcache.internal.JCacheRegionFactory";
+
+    @Override
+    public void registerHints(final RuntimeHints hints, final ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                User.class, Location.class, Favorite.class, GeocodingResult.class, FavoriteSummary.class,
+                FavoriteForecast.class, ForecastSeries.class, WeatherRecord.class, KeysetPage.class,
+                LocationImportResult.class);
+
+        // FavoriteRepository.SUMMARY and the serializer named in @JsonSerialize
+        hints.reflection().registerType(FavoriteSummary.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.reflection().registerType(ForecastSeries.Serializer.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.reflection().registerType(TypeReference.of(CACHING_PROVIDER), MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.reflection().registerType(TypeReference.of(REGION_FACTORY), MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+
+        hints.resources().registerPattern("application.conf");
+        hints.resources().registerPattern("airports.csv");
+        hints.resources().registerPattern("import.sql");
+        hints.resources().registerPattern(AotProfileGuard.RESOURCE);
+    }
+}
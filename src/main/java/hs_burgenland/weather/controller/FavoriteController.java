@@ -1,13 +1,23 @@
 package hs_burgenland.weather.controller;
 
 import hs_burgenland.weather.entities.Favorite;
+import hs_burgenland.weather.entities.FavoriteSummary;
+import hs_burgenland.weather.entities.KeysetPage;
 import hs_burgenland.weather.entities.User;
 import hs_burgenland.weather.exceptions.EntityAlreadyExistingException;
 import hs_burgenland.weather.exceptions.EntityNotFoundException;
+import hs_burgenland.weather.services.ExportService;
 import hs_burgenland.weather.services.FavoriteService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.List;
 
 @RestController
 @RequestMapping("/favorites")
@@ -15,6 +25,9 @@ public class FavoriteController {
     @Autowired
     private FavoriteService favoriteService;
 
+    @Autowired
+    private ExportService exportService;
+
 //    DefaultUser: id = 1
     @PostMapping
     public ResponseEntity<?> createFavorite(@RequestBody final Favorite favorite) {
@@ -42,27 +55,47 @@ public class FavoriteController {
         }
     }
 
+    // one page of summaries ordered by id (see KeysetPage), without after and limit the deprecated capped listing
     @GetMapping
-    public ResponseEntity<?> getAllFavorites() {
+    public ResponseEntity<?> getAllFavorites(@RequestParam(required = false) final Integer after,
+                                             @RequestParam(required = false) final Integer limit) {
         try {
-            return ResponseEntity.ok(favoriteService.getAllFavorites());
+            KeysetPage.validate(after, limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+        try {
+            if (after == null && limit == null) {
+                return UnpagedListings.of(favoriteService.getFavoriteSummaries(0, KeysetPage.MAX_LIMIT));
+            }
+            return ResponseEntity.ok(favoriteService.getFavoriteSummaries(after == null ? 0 : after,
+                    limit == null ? KeysetPage.DEFAULT_LIMIT : limit));
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body(e.getMessage());
         }
     }
 
+    // written on the request thread, see UserController.exportUsers
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportFavorites(final HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        exportService.exportFavorites(response.getOutputStream());
+    }
+
+    // declares the element type for the protobuf converter, errors are rendered as problem details
     @GetMapping("/user/{id}")
-    public ResponseEntity<?> getFavoritesByUserId(@PathVariable final int id) {
+    public ResponseEntity<List<FavoriteSummary>> getFavoritesByUserId(@PathVariable final int id) {
         if (id <= 0) {
-            return ResponseEntity.badRequest().body("User id must be greater than 0.");
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "User id must be greater than 0.");
         }
 
         try {
-            return ResponseEntity.ok(favoriteService.getFavoritesByUserId(id));
+            return ResponseEntity.ok(favoriteService.getFavoriteSummariesByUserId(id));
         } catch (EntityNotFoundException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
-            return ResponseEntity.internalServerError().body(e.getMessage());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage(), e);
         }
     }
 
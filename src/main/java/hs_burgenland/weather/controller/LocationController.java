@@ -1,18 +1,33 @@
 package hs_burgenland.weather.controller;
 
+import hs_burgenland.weather.entities.KeysetPage;
 import hs_burgenland.weather.exceptions.EntityAlreadyExistingException;
 import hs_burgenland.weather.exceptions.EntityNotFoundException;
+import hs_burgenland.weather.services.ExportService;
+import hs_burgenland.weather.services.LocationImportService;
 import hs_burgenland.weather.services.LocationService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 @RestController
 @RequestMapping("/locations")
 public class LocationController {
     @Autowired
     private LocationService locationService;
 
+    @Autowired
+    private LocationImportService locationImportService;
+
+    @Autowired
+    private ExportService exportService;
+
     @PostMapping
     public ResponseEntity<?> createLocation(@RequestParam final String locationName) {
         try {
@@ -24,15 +39,46 @@ public class LocationController {
         }
     }
 
+    // one name per line, either NDJSON or CSV (first column), results are streamed back as NDJSON. Written on the
+    // request thread like the exports, so the async request timeout does not cut off large imports
+    @PostMapping(value = "/import",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv", MediaType.TEXT_PLAIN_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importLocations(@RequestHeader(HttpHeaders.CONTENT_TYPE) final String contentType,
+                                final InputStream body, final HttpServletResponse response) throws IOException {
+        final boolean ndjson = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_NDJSON);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        locationImportService.importLocations(body, ndjson, response.getOutputStream());
+    }
+
+    // one page ordered by id, without after and limit the deprecated capped listing (see UnpagedListings)
     @GetMapping
-    public ResponseEntity<?> getAllLocations() {
+    public ResponseEntity<?> getAllLocations(@RequestParam(required = false) final Integer after,
+                                             @RequestParam(required = false) final Integer limit) {
         try {
-            return ResponseEntity.ok(locationService.getAllLocations());
+            KeysetPage.validate(after, limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+        try {
+            if (after == null && limit == null) {
+                return UnpagedListings.of(locationService.getLocations(0, KeysetPage.MAX_LIMIT));
+            }
+            return ResponseEntity.ok(locationService.getLocations(after == null ? 0 : after,
+                    limit == null ? KeysetPage.DEFAULT_LIMIT : limit));
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body(e.getMessage());
         }
     }
 
+    // written on the request thread, see UserController.exportUsers
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportLocations(final HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        exportService.exportLocations(response.getOutputStream());
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> getLocationById(@PathVariable final int id) {
         if (id <= 0) {
@@ -0,0 +1,29 @@
+package hs_burgenland.weather.controller;
+
+import hs_burgenland.weather.entities.KeysetPage;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+
+/**
+ * Listings requested without after and limit are deprecated. They return the first KeysetPage.MAX_LIMIT entries
+ * as a plain array, with a Deprecation header and a Link to the next page when the table holds more.
+ */
+final class UnpagedListings {
+    private UnpagedListings() {
+    }
+
+    static <T> ResponseEntity<List<T>> of(final KeysetPage<T> firstPage) {
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok().header("Deprecation", "true");
+        if (firstPage.getNextCursor() != null) {
+            final String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", firstPage.getNextCursor())
+                    .replaceQueryParam("limit", KeysetPage.MAX_LIMIT)
+                    .toUriString();
+            response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(firstPage.getItems());
+    }
+}
@@ -1,19 +1,28 @@
 package hs_burgenland.weather.controller;
 
+import hs_burgenland.weather.entities.KeysetPage;
 import hs_burgenland.weather.entities.User;
 import hs_burgenland.weather.exceptions.EntityAlreadyExistingException;
 import hs_burgenland.weather.exceptions.EntityNotFoundException;
+import hs_burgenland.weather.services.ExportService;
 import hs_burgenland.weather.services.UserService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+
 @RestController
 @RequestMapping("/users")
 public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ExportService exportService;
+
     @PostMapping
     public ResponseEntity<?> createUser(@RequestBody final User user) {
         if (user.getFirstname() == null || user.getLastname() == null) {
@@ -28,15 +37,35 @@ public class UserController {
         }
     }
 
+    // one page ordered by id (see KeysetPage), without after and limit the deprecated capped listing
     @GetMapping
-    public ResponseEntity<?> getAllUsers() {
+    public ResponseEntity<?> getAllUsers(@RequestParam(required = false) final Integer after,
+                                         @RequestParam(required = false) final Integer limit) {
         try {
-            return ResponseEntity.ok(userService.getAllUsers());
+            KeysetPage.validate(after, limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+        try {
+            if (after == null && limit == null) {
+                return UnpagedListings.of(userService.getUsers(0, KeysetPage.MAX_LIMIT));
+            }
+            return ResponseEntity.ok(userService.getUsers(after == null ? 0 : after,
+                    limit == null ? KeysetPage.DEFAULT_LIMIT : limit));
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body(e.getMessage());
         }
     }
 
+    // whole table as NDJSON, written while it is read (for sync jobs). Written on the request thread, so the
+    // async request timeout of the other endpoints does not cut off large exports
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportUsers(final HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        exportService.exportUsers(response.getOutputStream());
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> getUserById(@PathVariable final int id) {
         if (id <= 0) {
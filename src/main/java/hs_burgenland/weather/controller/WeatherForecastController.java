@@ -1,45 +1,148 @@
 package hs_burgenland.weather.controller;
 
 import hs_burgenland.weather.entities.Favorite;
+import hs_burgenland.weather.entities.FavoriteForecast;
+import hs_burgenland.weather.entities.ForecastSeries;
 import hs_burgenland.weather.exceptions.EntityNotFoundException;
 import hs_burgenland.weather.services.FavoriteService;
+import hs_burgenland.weather.services.ForecastCache;
 import hs_burgenland.weather.services.WeatherForecastService;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.List;
 
 @RestController
 @RequestMapping("/weather")
 public class WeatherForecastController {
+    // set when at least one returned forecast is the last good one, served because Open-Meteo failed
+    static final String STALE_HEADER = "X-Forecast-Stale";
+
     @Autowired
     private WeatherForecastService weatherForecastService;
 
     @Autowired
     private FavoriteService favoriteService;
 
+    @Autowired
+    private ForecastCache forecastCache;
+
+    @Autowired
+    private Scheduler blockingScheduler;
+
     @GetMapping("/{favoriteId}")
-    public ResponseEntity<?> getWeatherForecastAtFavoriteLocation(@PathVariable final int favoriteId) {
+    public Mono<ResponseEntity<?>> getWeatherForecastAtFavoriteLocation(
+            @PathVariable final int favoriteId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch) {
         if (favoriteId <= 0) {
-            return ResponseEntity.badRequest().body("Favorite id must be greater than 0.");
+            return Mono.just(ResponseEntity.badRequest().body("Favorite id must be greater than 0."));
         }
 
-        try {
-            final Favorite favorite = favoriteService.getFavoriteById(favoriteId);
-
-            if (favorite.getLocation() == null || favorite.getLocation().getId() <= 0) {
-                return ResponseEntity.badRequest().body("Location id must be greater than 0.");
-            }
+        return Mono.fromCallable(() -> favoriteService.getFavoriteById(favoriteId))
+                .subscribeOn(blockingScheduler)
+                .flatMap(favorite -> getWeatherForecastResponse(favorite, ifNoneMatch))
+                .onErrorResume(EntityNotFoundException.class, e -> Mono.just(ResponseEntity.notFound().build()))
+                .onErrorResume(WeatherForecastController::isRejected, e -> Mono.just(serviceUnavailable(e)))
+                .onErrorResume(e -> Mono.just(ResponseEntity.internalServerError().body(e.getMessage())));
+    }
 
-            return ResponseEntity.ok(weatherForecastService.getWeatherForecast(favorite));
+    // declares the element type for the protobuf converter, errors are rendered as problem details
+    @GetMapping("/user/{userId}")
+    public ResponseEntity<List<FavoriteForecast>> getWeatherForecastsOfUser(@PathVariable final int userId) {
+        if (userId <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "User id must be greater than 0.");
+        }
 
+        try {
+            final List<Favorite> favorites = favoriteService.getFavoritesByUserId(userId);
+            final List<FavoriteForecast> forecasts = weatherForecastService.getWeatherForecasts(favorites);
+            return ResponseEntity.ok()
+                    .header(STALE_HEADER, String.valueOf(forecasts.stream().anyMatch(FavoriteForecast::isStale)))
+                    .body(forecasts);
         } catch (EntityNotFoundException e) {
             return ResponseEntity.notFound().build();
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
         } catch (Exception e) {
-            return ResponseEntity.internalServerError().body(e.getMessage());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage(), e);
         }
     }
 
+    private Mono<ResponseEntity<?>> getWeatherForecastResponse(final Favorite favorite, final String ifNoneMatch) {
+        if (favorite.getLocation() == null || favorite.getLocation().getId() <= 0) {
+            return Mono.just(ResponseEntity.badRequest().body("Location id must be greater than 0."));
+        }
+
+        return weatherForecastService.getWeatherForecastReactive(favorite)
+                .map(forecastSeries -> getConditionalResponse(forecastSeries, ifNoneMatch));
+    }
+
+    // clients and caches keep a forecast until the model update that supersedes it, a stale or superseded one
+    // (served within the refresh grace) has to be revalidated
+    private ResponseEntity<?> getConditionalResponse(final ForecastSeries forecastSeries, final String ifNoneMatch) {
+        final String etag = etag(forecastSeries);
+        final Duration timeToSupersede = forecastCache.timeToSupersede(forecastSeries);
+        final CacheControl cacheControl = forecastSeries.isStale() || timeToSupersede.isZero()
+                ? CacheControl.noCache()
+                : CacheControl.maxAge(timeToSupersede).cachePublic();
+        final boolean notModified = matchesEtag(ifNoneMatch, etag);
+
+        final ResponseEntity.BodyBuilder response = ResponseEntity
+                .status(notModified ? HttpStatus.NOT_MODIFIED : HttpStatus.OK)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT)
+                .header(STALE_HEADER, String.valueOf(forecastSeries.isStale()));
+        return notModified ? response.build() : response.body(forecastSeries);
+    }
+
+    // content and model run, plus the stale flag as it changes the response headers. Weak, as it is shared by
+    // all representations (json, cbor, smile, protobuf, gzip) and Tomcat does not compress strong ETags
+    static String etag(final ForecastSeries forecastSeries) {
+        return "W/\"" + Long.toHexString(forecastSeries.contentHash()) + "-"
+                + Long.toHexString(forecastSeries.getModelRunMillis() / 1000)
+                + (forecastSeries.isStale() ? "-stale" : "") + "\"";
+    }
+
+    // If-None-Match uses the weak comparison, the W/ prefixes are ignored on both sides
+    static boolean matchesEtag(final String ifNoneMatch, final String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        final String opaqueTag = opaqueTag(etag);
+        for (final String candidate : ifNoneMatch.split(",")) {
+            final String trimmed = candidate.trim();
+            if ("*".equals(trimmed) || opaqueTag.equals(opaqueTag(trimmed))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaqueTag(final String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    // Open-Meteo is unavailable (circuit breaker open) or overloaded (bulkhead full) and there is no forecast to fall back to
+    private static boolean isRejected(final Throwable error) {
+        return error instanceof CallNotPermittedException || error instanceof BulkheadFullException;
+    }
+
+    private static ResponseEntity<?> serviceUnavailable(final Throwable error) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error.getMessage());
+    }
 }
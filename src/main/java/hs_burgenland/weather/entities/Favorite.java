@@ -8,15 +8,20 @@ import lombok.Setter;
 @Getter
 @Setter
 @Table(uniqueConstraints = {
-        @UniqueConstraint(columnNames = {"user_id", "location_id"}),
-        @UniqueConstraint(columnNames = {"user_id", "name"})
+        @UniqueConstraint(name = Favorite.USER_LOCATION_CONSTRAINT, columnNames = {"user_id", "location_id"}),
+        @UniqueConstraint(name = Favorite.USER_NAME_CONSTRAINT, columnNames = {"user_id", "name"})
 })
 public class Favorite {
+    // named so that FavoriteService can tell the violations apart
+    public static final String USER_LOCATION_CONSTRAINT = "favorite_user_location_key";
+    public static final String USER_NAME_CONSTRAINT = "favorite_user_name_key";
+    public static final String USER_FOREIGN_KEY = "favorite_user_fk";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private int id;
     @ManyToOne
-    @JoinColumn(name = "user_id", nullable = false)
+    @JoinColumn(name = "user_id", nullable = false, foreignKey = @ForeignKey(name = Favorite.USER_FOREIGN_KEY))
     private User user;
     @Column(nullable = false)
     private String name;
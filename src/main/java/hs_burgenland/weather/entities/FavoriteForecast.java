@@ -0,0 +1,16 @@
+package hs_burgenland.weather.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class FavoriteForecast {
+    private int favoriteId;
+    private String name;
+    private ForecastSeries forecast;
+
+    public boolean isStale() {
+        return forecast != null && forecast.isStale();
+    }
+}
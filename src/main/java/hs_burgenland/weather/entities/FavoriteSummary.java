@@ -0,0 +1,44 @@
+package hs_burgenland.weather.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Read-only view of a favorite with its user and location, filled by a single joined query.
+ * Serializes like Favorite, but no entities are loaded into the persistence context.
+ */
+@Data
+@AllArgsConstructor
+public class FavoriteSummary {
+    private int id;
+    private String name;
+    private UserSummary user;
+    private LocationSummary location;
+
+    // flat columns of the constructor expression in FavoriteRepository
+    public FavoriteSummary(final int id, final String name, final int userId, final String firstname,
+                           final String lastname, final int locationId, final double latitude, final double longitude,
+                           final double elevation, final String locationName, final String icao) {
+        this(id, name, new UserSummary(userId, firstname, lastname),
+                new LocationSummary(locationId, latitude, longitude, elevation, locationName, icao));
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class UserSummary {
+        private int id;
+        private String firstname;
+        private String lastname;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class LocationSummary {
+        private int id;
+        private double latitude;
+        private double longitude;
+        private double elevation;
+        private String name;
+        private String icao;
+    }
+}
@@ -0,0 +1,181 @@
+package hs_burgenland.weather.entities;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Hourly forecast stored column-wise: a start time and step plus one primitive array per value.
+ * It is a read-only List of WeatherRecords for existing callers, the records are only created on access.
+ * Serialization writes the WeatherRecord JSON shape straight from the arrays.
+ * A stale series is a last known forecast served while a fresh one cannot be retrieved.
+ * The model run is the upstream model run the series was retrieved from, set when it is cached (0 if unknown).
+ */
+@JsonSerialize(using = ForecastSeries.Serializer.class)
+public final class ForecastSeries extends AbstractList<WeatherRecord> implements RandomAccess {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final ForecastSeries EMPTY = new ForecastSeries(0, 0, new float[0], new byte[0]);
+
+    private final long startEpochSecond;
+    private final int stepSeconds;
+    private final float[] temperatures;
+    private final byte[] humidities;
+    private final boolean stale;
+    private final long modelRunMillis;
+
+    public ForecastSeries(final long startEpochSecond, final int stepSeconds,
+                          final float[] temperatures, final byte[] humidities) {
+        this(startEpochSecond, stepSeconds, temperatures, humidities, false, 0);
+    }
+
+    private ForecastSeries(final long startEpochSecond, final int stepSeconds, final float[] temperatures,
+                           final byte[] humidities, final boolean stale, final long modelRunMillis) {
+        if (temperatures.length != humidities.length) {
+            throw new IllegalArgumentException("Temperatures and humidities must have the same length.");
+        }
+        this.startEpochSecond = startEpochSecond;
+        this.stepSeconds = stepSeconds;
+        this.temperatures = temperatures;
+        this.humidities = humidities;
+        this.stale = stale;
+        this.modelRunMillis = modelRunMillis;
+    }
+
+    public static ForecastSeries empty() {
+        return EMPTY;
+    }
+
+    public static ForecastSeries of(final List<WeatherRecord> weatherRecords) {
+        if (weatherRecords instanceof ForecastSeries forecastSeries) {
+            return forecastSeries;
+        }
+        if (weatherRecords.isEmpty()) {
+            return EMPTY;
+        }
+
+        final long startEpochSecond = toEpochSecond(weatherRecords.getFirst().getTime());
+        final int stepSeconds = weatherRecords.size() == 1 ? 0
+                : (int) (toEpochSecond(weatherRecords.get(1).getTime()) - startEpochSecond);
+        final float[] temperatures = new float[weatherRecords.size()];
+        final byte[] humidities = new byte[weatherRecords.size()];
+
+        for (int i = 0; i < weatherRecords.size(); i++) {
+            final WeatherRecord weatherRecord = weatherRecords.get(i);
+            if (toEpochSecond(weatherRecord.getTime()) != startEpochSecond + (long) i * stepSeconds) {
+                throw new IllegalArgumentException("Weather records must be evenly spaced.");
+            }
+            temperatures[i] = (float) weatherRecord.getTemperature();
+            humidities[i] = toHumidity(weatherRecord.getHumidity());
+        }
+        return new ForecastSeries(startEpochSecond, stepSeconds, temperatures, humidities);
+    }
+
+    public static long toEpochSecond(final LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public static byte toHumidity(final int humidity) {
+        return (byte) Math.clamp(humidity, 0, 100);
+    }
+
+    // shares the arrays, the series is never modified
+    public ForecastSeries asStale() {
+        return stale ? this
+                : new ForecastSeries(startEpochSecond, stepSeconds, temperatures, humidities, true, modelRunMillis);
+    }
+
+    // shares the arrays as well
+    public ForecastSeries withModelRun(final long modelRunMillis) {
+        return new ForecastSeries(startEpochSecond, stepSeconds, temperatures, humidities, stale, modelRunMillis);
+    }
+
+    public long getModelRunMillis() {
+        return modelRunMillis;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    // 64-bit FNV-1a over the serialized values, equal series give equal hashes across instances and restarts
+    public long contentHash() {
+        long hash = mix(FNV_OFFSET_BASIS, startEpochSecond);
+        hash = mix(hash, stepSeconds);
+        for (int i = 0; i < temperatures.length; i++) {
+            hash = mix(hash, Float.floatToIntBits(temperatures[i]));
+            hash = mix(hash, humidities[i]);
+        }
+        return hash;
+    }
+
+    private static long mix(final long hash, final long value) {
+        return (hash ^ value) * FNV_PRIME;
+    }
+
+    public long getStartEpochSecond() {
+        return startEpochSecond;
+    }
+
+    public int getStepSeconds() {
+        return stepSeconds;
+    }
+
+    public long getEpochSecond(final int index) {
+        return startEpochSecond + (long) index * stepSeconds;
+    }
+
+    public LocalDateTime getTime(final int index) {
+        return LocalDateTime.ofEpochSecond(getEpochSecond(index), 0, ZoneOffset.UTC);
+    }
+
+    public float getTemperature(final int index) {
+        return temperatures[index];
+    }
+
+    public int getHumidity(final int index) {
+        return humidities[index];
+    }
+
+    @Override
+    public WeatherRecord get(final int index) {
+        // shortest decimal representation, so -0.2f reads as -0.2 and not -0.20000000298023224
+        return new WeatherRecord(getTime(index), Double.parseDouble(Float.toString(temperatures[index])),
+                humidities[index]);
+    }
+
+    @Override
+    public int size() {
+        return temperatures.length;
+    }
+
+    public static class Serializer extends StdSerializer<ForecastSeries> {
+        public Serializer() {
+            super(ForecastSeries.class);
+        }
+
+        @Override
+        public void serialize(final ForecastSeries forecastSeries, final JsonGenerator generator,
+                              final SerializerProvider provider) throws IOException {
+            generator.writeStartArray(forecastSeries, forecastSeries.size());
+            for (int i = 0; i < forecastSeries.size(); i++) {
+                generator.writeStartObject();
+                generator.writeStringField("time", DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(forecastSeries.getTime(i)));
+                generator.writeFieldName("temperature");
+                generator.writeNumber(forecastSeries.getTemperature(i));
+                generator.writeNumberField("humidity", forecastSeries.getHumidity(i));
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package hs_burgenland.weather.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Entity
+@Getter
+@Setter
+@Table(name = "geocoding_result")
+public class GeocodingResult {
+    @Id
+    private String normalizedName;
+    @Column(nullable = false)
+    private boolean found;
+    private String name;
+    private double latitude;
+    private double longitude;
+    private double elevation;
+    @Column(nullable = false)
+    private Instant expiresAt;
+}
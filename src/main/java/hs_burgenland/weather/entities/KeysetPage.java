@@ -0,0 +1,39 @@
+package hs_burgenland.weather.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * One page of a listing ordered by id. The next page starts after nextCursor, which is null on the last page.
+ */
+@Data
+@AllArgsConstructor
+public class KeysetPage<T> {
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    private List<T> items;
+    private Integer nextCursor;
+
+    // after and limit request parameters of a listing, both optional
+    public static void validate(final Integer after, final Integer limit) {
+        if (after != null && after < 0) {
+            throw new IllegalArgumentException("Cursor must not be negative.");
+        }
+        if (limit != null && (limit <= 0 || limit > MAX_LIMIT)) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT + ".");
+        }
+    }
+
+    // items holds up to limit + 1 rows, the extra row only tells that there is a next page
+    public static <T> KeysetPage<T> of(final List<T> items, final int limit, final ToIntFunction<T> idFunction) {
+        if (items.size() <= limit) {
+            return new KeysetPage<>(items, null);
+        }
+        final List<T> pageItems = items.subList(0, limit);
+        return new KeysetPage<>(pageItems, idFunction.applyAsInt(pageItems.getLast()));
+    }
+}
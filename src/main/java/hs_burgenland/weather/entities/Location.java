@@ -3,12 +3,18 @@ package hs_burgenland.weather.entities;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Location.CACHE_REGION)
 @Getter
 @Setter
 @Table(uniqueConstraints = {@UniqueConstraint(columnNames = {"latitude", "longitude"})})
 public class Location {
+    public static final String CACHE_REGION = "locations";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private int id;
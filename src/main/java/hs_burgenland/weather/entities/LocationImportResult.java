@@ -0,0 +1,15 @@
+package hs_burgenland.weather.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class LocationImportResult {
+    public enum Status { CREATED, DUPLICATE, FAILED }
+
+    private String name;
+    private Status status;
+    private Location location;
+    private String message;
+}
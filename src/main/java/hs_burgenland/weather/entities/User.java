@@ -3,8 +3,12 @@ package hs_burgenland.weather.entities;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = User.CACHE_REGION)
 @Getter
 @Setter
 @Table(name = "users",
@@ -12,6 +16,8 @@ import lombok.Setter;
                 @UniqueConstraint(columnNames = {"firstname", "lastname"})
         })
 public class User {
+    public static final String CACHE_REGION = "users";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private int id;
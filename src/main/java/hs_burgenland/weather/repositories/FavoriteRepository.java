@@ -1,12 +1,41 @@
 package hs_burgenland.weather.repositories;
 
 import hs_burgenland.weather.entities.Favorite;
+import hs_burgenland.weather.entities.FavoriteSummary;
+import hs_burgenland.weather.entities.Location;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface FavoriteRepository extends JpaRepository<Favorite, Integer> {
+    String SUMMARY = "SELECT new hs_burgenland.weather.entities.FavoriteSummary(f.id, f.name, u.id, u.firstname, "
+            + "u.lastname, l.id, l.latitude, l.longitude, l.elevation, l.name, l.icao) "
+            + "FROM Favorite f JOIN f.user u JOIN f.location l ";
+
+    // user and location are joined into the same select instead of one select per favorite
+    @Override
+    @EntityGraph(attributePaths = {"user", "location"})
+    List<Favorite> findAll();
+    @EntityGraph(attributePaths = {"user", "location"})
     List<Favorite> findByUserId(int userId);
-    boolean existsByLocationIdAndUserId(int locationId, int userId);
-    boolean existsByNameAndUserId(String name, int userId);
+    @Query(SUMMARY + "WHERE f.id > :after ORDER BY f.id")
+    List<FavoriteSummary> findSummariesByIdGreaterThan(@Param("after") int after, Limit limit);
+    @Query(SUMMARY + "WHERE u.id = :userId ORDER BY f.id")
+    List<FavoriteSummary> findSummariesByUserId(@Param("userId") int userId);
+    boolean existsByUserIdAndName(int userId, String name);
+    boolean existsByUserIdAndLocationId(int userId, int locationId);
+    @Query("SELECT DISTINCT f.location FROM Favorite f")
+    List<Location> findFavoriteLocations();
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT f FROM Favorite f JOIN FETCH f.user JOIN FETCH f.location ORDER BY f.id")
+    Stream<Favorite> streamAll();
 }
@@ -0,0 +1,7 @@
+package hs_burgenland.weather.repositories;
+
+import hs_burgenland.weather.entities.GeocodingResult;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface GeocodingResultRepository extends JpaRepository<GeocodingResult, String> {
+}
@@ -1,15 +1,30 @@
 package hs_burgenland.weather.repositories;
 
 import hs_burgenland.weather.entities.Location;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface LocationRepository extends JpaRepository<Location, Integer> {
+    List<Location> findByIdGreaterThanOrderByIdAsc(int id, Limit limit);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Location> getLocationByLatitudeAndLongitude(double latitude, double longitude);
-    @Query("SELECT l FROM Location l WHERE LOWER(l.name) LIKE LOWER(CONCAT('%', :name, '%'))")
-    List<Location> findByNameContaining(@Param("name") String name);
-}
\ No newline at end of file
+    // served by the pg_trgm index on LOWER(name) from import.sql: exact match, prefix match, then shorter names
+    @Query("SELECT l FROM Location l WHERE LOWER(l.name) LIKE LOWER(CONCAT('%', :name, '%')) "
+            + "ORDER BY CASE WHEN LOWER(l.name) = LOWER(:name) THEN 0 "
+            + "WHEN LOWER(l.name) LIKE LOWER(CONCAT(:name, '%')) THEN 1 ELSE 2 END, LENGTH(l.name), l.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Location> findByNameContaining(@Param("name") String name, Limit limit);
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT l FROM Location l ORDER BY l.id")
+    Stream<Location> streamAll();
+}
@@ -1,11 +1,27 @@
 package hs_burgenland.weather.repositories;
 
 import hs_burgenland.weather.entities.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 
 public interface UserRepository extends JpaRepository<User, Integer> {
+    // keyset pagination over the primary key index
+    List<User> findByIdGreaterThanOrderByIdAsc(int id, Limit limit);
+    // query cache, invalidated by Hibernate on every write to users
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> getUserByFirstnameAndLastname(String firstname, String lastname);
+    // cursor over the whole table for exports, rows are fetched from the database in batches of the fetch size
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT u FROM User u ORDER BY u.id")
+    Stream<User> streamAll();
 }
@@ -0,0 +1,165 @@
+package hs_burgenland.weather.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * In-process nearest-station lookup over the bundled airports dataset (icao,latitude,longitude per line).
+ * The dataset is loaded in the background after startup and reloaded whenever the resource changes.
+ * A "# coverage: minLat,minLon,maxLat,maxLon" line declares the area in which the dataset holds every station.
+ * A hit is only returned if no station outside the dataset can be closer, i.e. the location lies in the coverage and
+ * the hit is nearer than the coverage boundary. Otherwise, until the dataset is loaded, or if the nearest station is
+ * too far away, lookups are empty and callers fall back to AVWX.
+ */
+@Slf4j
+@Component
+public class AirportIndex implements SmartLifecycle {
+    private static final String COVERAGE_PREFIX = "# coverage:";
+
+    @Value("${airports.dataset:classpath:airports.csv}")
+    private Resource dataset;
+
+    @Value("${airports.reload-interval:PT10M}")
+    private Duration reloadInterval;
+
+    @Value("${airports.max-distance-km:100}")
+    private double maxDistanceKm;
+
+    @Autowired
+    private Scheduler blockingScheduler;
+
+    private volatile Stations stations;
+    private long loadedLastModified = -1;
+    private Disposable reloads;
+
+    public Optional<String> findNearestIcao(final double latitude, final double longitude) {
+        final Stations loaded = stations;
+        if (loaded == null || loaded.coverage() == null) {
+            return Optional.empty();
+        }
+        final double trustedDistanceKm = Math.min(maxDistanceKm,
+                loaded.coverage().distanceToBoundaryKm(latitude, longitude));
+        return loaded.tree().nearest(latitude, longitude)
+                .filter(station -> station.distanceKm() <= trustedDistanceKm)
+                .map(StationKdTree.NearestStation::icao);
+    }
+
+    @Override
+    public void start() {
+        reloads = Flux.interval(Duration.ZERO, reloadInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> Mono.fromRunnable(this::reloadIfModified).subscribeOn(blockingScheduler))
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        reloads.dispose();
+        reloads = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return reloads != null;
+    }
+
+    synchronized void reloadIfModified() {
+        try {
+            final long lastModified = lastModified();
+            if (stations != null && lastModified == loadedLastModified) {
+                return;
+            }
+            final Stations loaded = readStations();
+            stations = loaded;
+            loadedLastModified = lastModified;
+            if (loaded.coverage() == null) {
+                log.warn("Loaded {} airport stations from {} without a coverage, all lookups are sent to AVWX.",
+                        loaded.tree().size(), dataset.getDescription());
+            } else {
+                log.info("Loaded {} airport stations from {}.", loaded.tree().size(), dataset.getDescription());
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Error while loading airport stations from {}.", dataset.getDescription(), e);
+        }
+    }
+
+    private long lastModified() {
+        try {
+            return dataset.lastModified();
+        } catch (IOException e) {
+            // resources without a modification time are only loaded once
+            return 0;
+        }
+    }
+
+    private Stations readStations() throws IOException {
+        final List<StationKdTree.Station> stations = new ArrayList<>();
+        Coverage coverage = null;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(dataset.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(COVERAGE_PREFIX)) {
+                    coverage = Coverage.parse(line.substring(COVERAGE_PREFIX.length()));
+                }
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                final String[] columns = line.split(",");
+                stations.add(StationKdTree.Station.of(columns[0].trim(),
+                        Double.parseDouble(columns[1].trim()), Double.parseDouble(columns[2].trim())));
+            }
+        }
+        return new Stations(new StationKdTree(stations), coverage);
+    }
+
+    private record Stations(StationKdTree tree, Coverage coverage) {
+    }
+
+    record Coverage(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+        private static final double EARTH_RADIUS_KM = 6371.0;
+
+        static Coverage parse(final String value) {
+            final String[] bounds = value.split(",");
+            return new Coverage(Double.parseDouble(bounds[0].trim()), Double.parseDouble(bounds[1].trim()),
+                    Double.parseDouble(bounds[2].trim()), Double.parseDouble(bounds[3].trim()));
+        }
+
+        /**
+         * Lower bound of the distance to the nearest point outside the coverage, 0 outside of it.
+         * A coverage spanning all longitudes has no east and west boundary.
+         */
+        double distanceToBoundaryKm(final double latitude, final double longitude) {
+            if (latitude < minLatitude || latitude > maxLatitude
+                    || longitude < minLongitude || longitude > maxLongitude) {
+                return 0;
+            }
+            double radians = Math.toRadians(Math.min(latitude - minLatitude, maxLatitude - latitude));
+            if (maxLongitude - minLongitude < 360) {
+                // great-circle distance to the meridian of the nearer east or west boundary
+                final double longitudeDifference = Math.toRadians(
+                        Math.min(90, Math.min(longitude - minLongitude, maxLongitude - longitude)));
+                radians = Math.min(radians,
+                        Math.asin(Math.cos(Math.toRadians(latitude)) * Math.sin(longitudeDifference)));
+            }
+            return radians * EARTH_RADIUS_KM;
+        }
+    }
+}
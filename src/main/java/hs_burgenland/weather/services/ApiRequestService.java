@@ -1,12 +1,44 @@
 package hs_burgenland.weather.services;
 
+import hs_burgenland.weather.UpstreamClientConfig;
+import hs_burgenland.weather.UpstreamClientProperties;
 import hs_burgenland.weather.entities.Location;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.netty.handler.timeout.ReadTimeoutException;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.util.UriTemplate;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
+import java.net.URI;
+import java.util.concurrent.TimeoutException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Slf4j
 @Service
 public class ApiRequestService {
+    static final String UPSTREAM_TIMER = "upstream.requests";
+    private static final String FORECAST_QUERY =
+            "?latitude={latitude}&longitude={longitude}&hourly=temperature_2m&hourly=relative_humidity_2m&forecast_days=1";
+
     @Value("${url.geocoding}")
     private String geocodingUrl;
     @Value("${url.avwx}")
@@ -15,40 +47,150 @@ public class ApiRequestService {
     private String avwxToken;
     @Value("${url.openmeteo}")
     private String openmeteo;
-    final private WebClient webClient;
 
-    public ApiRequestService() {
-        this.webClient = WebClient.create();
+    @Autowired
+    private WebClient geocodingWebClient;
+    @Autowired
+    private WebClient avwxWebClient;
+    @Autowired
+    private WebClient openMeteoWebClient;
+    @Autowired
+    private UpstreamClientProperties upstreamClientProperties;
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry;
+
+    private UriTemplate geocodingTemplate;
+    private UriTemplate airportTemplate;
+    private UriTemplate forecastTemplate;
+
+    private Upstream geocoding;
+    private Upstream avwx;
+    private Upstream openMeteo;
+
+    @PostConstruct
+    void initialize() {
+        createUriTemplates();
+        geocoding = createUpstream("geocoding", geocodingWebClient, upstreamClientProperties.getGeocoding());
+        avwx = createUpstream("avwx", avwxWebClient, upstreamClientProperties.getAvwx());
+        openMeteo = createUpstream("open-meteo", openMeteoWebClient, upstreamClientProperties.getOpenMeteo());
+    }
+
+    // parsed once, every request only expands the variables
+    void createUriTemplates() {
+        geocodingTemplate = new UriTemplate(geocodingUrl + "?name={name}&count=1");
+        airportTemplate = new UriTemplate(avwxUrl + "{latitude},{longitude}?n=1&token={token}");
+        forecastTemplate = new UriTemplate(openmeteo + FORECAST_QUERY);
+    }
+
+    private Upstream createUpstream(final String name, final WebClient webClient,
+                                    final UpstreamClientProperties.Client client) {
+        return new Upstream(name, webClient,
+                circuitBreakerRegistry.circuitBreaker(name, UpstreamClientConfig.createCircuitBreakerConfig(client)),
+                bulkheadRegistry.bulkhead(name, UpstreamClientConfig.createBulkheadConfig(client)),
+                UpstreamClientConfig.createRetry(client));
     }
 
     public String retrieveLocationData(final Location location) {
-        return webClient
-                .get()
-                .uri(geocodingUrl + "?name=" + location.getName() + "&count=1")
-                .retrieve()
-                .bodyToMono(String.class)
-                .block();
+        return retrieveLocationDataReactive(location).block();
     }
 
     public String retrieveAirportData(final Location location) {
-        return webClient
-                .get()
-                .uri(avwxUrl
-                        + location.getLatitude() + "," + location.getLongitude()
-                        + "?n=1&token=" + avwxToken)
-                .retrieve()
-                .bodyToMono(String.class)
-                .block();
+        return retrieveAirportDataReactive(location).block();
     }
 
     public String retrieveWeatherForecast(final Location location) {
-        return webClient
-                .get()
-                .uri(openmeteo + "?latitude="
-                        + location.getLatitude() + "&longitude=" + location.getLongitude()
-                        + "&hourly=temperature_2m&hourly=relative_humidity_2m&forecast_days=1")
-                .retrieve()
-                .bodyToMono(String.class)
-                .block();
+        return retrieveWeatherForecastReactive(location).block();
+    }
+
+    public String retrieveWeatherForecasts(final List<Location> locations) {
+        return retrieveWeatherForecastsReactive(locations).block();
+    }
+
+    public Mono<String> retrieveLocationDataReactive(final Location location) {
+        return retrieve(geocoding, "retrieveLocationData",
+                geocodingTemplate.expand(location.getName()));
+    }
+
+    public Mono<String> retrieveAirportDataReactive(final Location location) {
+        return retrieve(avwx, "retrieveAirportData",
+                airportTemplate.expand(location.getLatitude(), location.getLongitude(), avwxToken));
+    }
+
+    public Mono<String> retrieveWeatherForecastReactive(final Location location) {
+        return retrieve(openMeteo, "retrieveWeatherForecast",
+                forecastTemplate.expand(location.getLatitude(), location.getLongitude()));
+    }
+
+    // Open-Meteo accepts comma separated coordinate lists and answers with one forecast object per location
+    public Mono<String> retrieveWeatherForecastsReactive(final List<Location> locations) {
+        return retrieve(openMeteo, "retrieveWeatherForecasts", forecastTemplate.expand(
+                locations.stream().map(location -> String.valueOf(location.getLatitude()))
+                        .collect(Collectors.joining(",")),
+                locations.stream().map(location -> String.valueOf(location.getLongitude()))
+                        .collect(Collectors.joining(","))));
+    }
+
+    // opens one pooled connection (TCP, TLS) per upstream, so the first real request does not pay for it
+    @EventListener(ApplicationReadyEvent.class)
+    public void prewarmConnections() {
+        prewarm(geocodingWebClient, geocodingUrl, upstreamClientProperties.getGeocoding());
+        prewarm(avwxWebClient, avwxUrl, upstreamClientProperties.getAvwx());
+        prewarm(openMeteoWebClient, openmeteo, upstreamClientProperties.getOpenMeteo());
+    }
+
+    // every attempt is timed per upstream and method, tagged with the http status or the kind of failure.
+    // Each attempt needs a bulkhead permit and a closed (or half open) circuit breaker, rejections are not retried.
+    private static Mono<String> retrieve(final Upstream upstream, final String operation, final URI uri) {
+        return Mono.defer(() -> {
+                    final Timer.Sample sample = Timer.start(Metrics.globalRegistry);
+                    return upstream.webClient()
+                            .get()
+                            .uri(uri)
+                            .retrieve()
+                            .toEntity(String.class)
+                            .doOnSuccess(response -> stopTimer(sample, upstream.name(), operation,
+                                    response == null ? "NONE" : String.valueOf(response.getStatusCode().value())))
+                            .doOnError(error -> stopTimer(sample, upstream.name(), operation, status(error)))
+                            .doOnCancel(() -> stopTimer(sample, upstream.name(), operation, "CANCELLED"))
+                            .mapNotNull(ResponseEntity::getBody);
+                })
+                .transformDeferred(BulkheadOperator.of(upstream.bulkhead()))
+                .transformDeferred(CircuitBreakerOperator.of(upstream.circuitBreaker()))
+                .retryWhen(upstream.retry());
+    }
+
+    private static void stopTimer(final Timer.Sample sample, final String upstream,
+                                  final String operation, final String status) {
+        sample.stop(Metrics.timer(UPSTREAM_TIMER, "upstream", upstream, "operation", operation, "status", status));
+    }
+
+    private static String status(final Throwable error) {
+        if (error instanceof WebClientResponseException responseException) {
+            return String.valueOf(responseException.getStatusCode().value());
+        }
+        return isTimeout(error) || isTimeout(error.getCause()) ? "TIMEOUT" : "IO_ERROR";
+    }
+
+    private static boolean isTimeout(final Throwable error) {
+        return error instanceof TimeoutException || error instanceof ReadTimeoutException;
+    }
+
+    private static void prewarm(final WebClient webClient, final String url, final UpstreamClientProperties.Client client) {
+        if (!client.isPrewarm()) {
+            return;
+        }
+        webClient.head()
+                .uri(url)
+                .exchangeToMono(ClientResponse::releaseBody)
+                .subscribe(
+                        unused -> { },
+                        error -> log.debug("Prewarming connection to {} failed.", url, error),
+                        () -> log.debug("Prewarmed connection to {}.", url));
+    }
+
+    private record Upstream(String name, WebClient webClient, CircuitBreaker circuitBreaker,
+                            Bulkhead bulkhead, Retry retry) {
     }
 }
@@ -0,0 +1,92 @@
+package hs_burgenland.weather.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import hs_burgenland.weather.repositories.FavoriteRepository;
+import hs_burgenland.weather.repositories.LocationRepository;
+import hs_burgenland.weather.repositories.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes whole tables as NDJSON, one entity per line, while reading them through a database cursor.
+ * Every chunk is flushed to the client and detached from the persistence context,
+ * so memory use does not grow with the table size.
+ */
+@Slf4j
+@Service
+public class ExportService {
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${export.chunk-size:500}")
+    private int chunkSize;
+
+    @Transactional(readOnly = true)
+    public long exportUsers(final OutputStream outputStream) throws IOException {
+        try (Stream<?> users = userRepository.streamAll()) {
+            return export("users", users, outputStream);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportLocations(final OutputStream outputStream) throws IOException {
+        try (Stream<?> locations = locationRepository.streamAll()) {
+            return export("locations", locations, outputStream);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportFavorites(final OutputStream outputStream) throws IOException {
+        try (Stream<?> favorites = favoriteRepository.streamAll()) {
+            return export("favorites", favorites, outputStream);
+        }
+    }
+
+    private long export(final String table, final Stream<?> entities, final OutputStream outputStream)
+            throws IOException {
+        // a flush per entity would send every line in its own chunk
+        final ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            // lines are separated by the newline below, not by the default space between root values
+            generator.setRootValueSeparator(null);
+            final Iterator<?> iterator = entities.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+                if (++count % chunkSize == 0) {
+                    generator.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+        log.info("Exported {} {}.", count, table);
+        return count;
+    }
+}
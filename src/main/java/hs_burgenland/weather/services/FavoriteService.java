@@ -1,16 +1,22 @@
 package hs_burgenland.weather.services;
 
 import hs_burgenland.weather.entities.Favorite;
+import hs_burgenland.weather.entities.FavoriteSummary;
+import hs_burgenland.weather.entities.KeysetPage;
 import hs_burgenland.weather.entities.Location;
-import hs_burgenland.weather.entities.User;
 import hs_burgenland.weather.exceptions.EntityAlreadyExistingException;
 import hs_burgenland.weather.exceptions.EntityNotFoundException;
 import hs_burgenland.weather.repositories.FavoriteRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 @Slf4j
@@ -25,20 +31,73 @@ public class FavoriteService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Stores the favorite with a single INSERT. Duplicate names and locations per user are rejected by the unique
+     * constraints of the favorite table, which also holds under concurrent requests. Only before a new location is
+     * geocoded the name is checked up front. The geocoding and airport requests run before the transaction, which only
+     * inserts the new location and the favorite, so a location created for a rejected favorite is rolled back with it.
+     * The user lookup is served by the second-level cache, a user deleted meanwhile fails the foreign key.
+     */
     public Favorite createFavorite(final String locationName, final int userId, final String name)
             throws EntityNotFoundException, EntityAlreadyExistingException {
 
         final Favorite favorite = new Favorite();
+        favorite.setName(name);
+        favorite.setUser(userService.getUserById(userId));
 
-        setFavoriteName(name, favorite, userId);
-        setFavoriteUser(userId, favorite);
-        setFavoriteLocation(locationName, userId, favorite);
+        final Optional<Location> existingLocation = locationService.getLocationByName(locationName.trim());
+        if (existingLocation.isPresent()) {
+            favorite.setLocation(existingLocation.get());
+        } else {
+            if (favoriteRepository.existsByUserIdAndName(userId, name)) {
+                throw new EntityAlreadyExistingException(duplicateNameMessage(name));
+            }
+            favorite.setLocation(locationService.prepareLocation(locationName));
+        }
 
-        return favoriteRepository.save(favorite);
+        try {
+            return transactionTemplate.execute(status -> {
+                if (existingLocation.isEmpty()) {
+                    favorite.setLocation(locationService.saveLocation(favorite.getLocation()));
+                }
+                return favoriteRepository.save(favorite);
+            });
+        } catch (DataIntegrityViolationException e) {
+            final String constraintName = violatedConstraint(e);
+            if (constraintName.contains(Favorite.USER_NAME_CONSTRAINT)) {
+                throw new EntityAlreadyExistingException(duplicateNameMessage(name));
+            }
+            if (constraintName.contains(Favorite.USER_LOCATION_CONSTRAINT)) {
+                throw new EntityAlreadyExistingException(duplicateLocationMessage(favorite, userId));
+            }
+            if (constraintName.contains(Favorite.USER_FOREIGN_KEY)) {
+                throw new EntityNotFoundException(userNotFoundMessage(userId));
+            }
+
+            // schemas kept by ddl-auto=update from before the constraints were named report generated names,
+            // so the violation is looked up in the tables instead
+            if (favoriteRepository.existsByUserIdAndName(userId, name)) {
+                throw new EntityAlreadyExistingException(duplicateNameMessage(name));
+            }
+            if (existingLocation.isPresent()
+                    && favoriteRepository.existsByUserIdAndLocationId(userId, favorite.getLocation().getId())) {
+                throw new EntityAlreadyExistingException(duplicateLocationMessage(favorite, userId));
+            }
+            if (existingLocation.isEmpty() && locationService.locationExists(favorite.getLocation())) {
+                throw new EntityAlreadyExistingException("Location " + favorite.getLocation().getName() + " does already exist.");
+            }
+            if (!userService.userExists(userId)) {
+                throw new EntityNotFoundException(userNotFoundMessage(userId));
+            }
+            throw e;
+        }
     }
 
-    public List<Favorite> getAllFavorites() {
-        return favoriteRepository.findAll();
+    public KeysetPage<FavoriteSummary> getFavoriteSummaries(final int after, final int limit) {
+        return KeysetPage.of(favoriteRepository.findSummariesByIdGreaterThan(after, Limit.of(limit + 1)), limit, FavoriteSummary::getId);
     }
 
     public List<Favorite> getFavoritesByUserId(final int userId) throws EntityNotFoundException {
@@ -46,6 +105,11 @@ public class FavoriteService {
         return favoriteRepository.findByUserId(userId);
     }
 
+    public List<FavoriteSummary> getFavoriteSummariesByUserId(final int userId) throws EntityNotFoundException {
+        userService.getUserById(userId);
+        return favoriteRepository.findSummariesByUserId(userId);
+    }
+
     public Favorite getFavoriteById(final int id) throws EntityNotFoundException {
         return favoriteRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Favorite with id " + id + " not found."));
@@ -58,29 +122,25 @@ public class FavoriteService {
         favoriteRepository.deleteById(id);
     }
 
-    private void setFavoriteName(final String name, final Favorite favorite, final int userId) throws EntityAlreadyExistingException {
-        if (favoriteRepository.existsByNameAndUserId(name, userId)) {
-            throw new EntityAlreadyExistingException("Location with name " + name + " is already a favorite location.");
-        }
-        favorite.setName(name);
+    private static String duplicateNameMessage(final String name) {
+        return "Location with name " + name + " is already a favorite location.";
     }
 
-    private void setFavoriteUser(final int userId, final Favorite favorite) throws EntityNotFoundException {
-        final User user = userService.getUserById(userId);
-        favorite.setUser(user);
+    private static String duplicateLocationMessage(final Favorite favorite, final int userId) {
+        return "Favorite with locationname " + favorite.getLocation().getName() + " and userId " + userId + " already exists.";
     }
 
-    private void setFavoriteLocation(final String locationName, final int userId, final Favorite favorite) throws EntityAlreadyExistingException {
-        final Optional<Location> locationResult = locationService.getLocationByName(locationName.trim());
-        final Location location;
-        if (locationResult.isPresent()) {
-            location = locationResult.get();
-            if (favoriteRepository.existsByLocationIdAndUserId(location.getId(), userId)) {
-                throw new EntityAlreadyExistingException("Favorite with locationname " + location.getName() + " and userId " + userId + " already exists.");
+    private static String userNotFoundMessage(final int userId) {
+        return "User with id " + userId + " not found.";
+    }
+
+    // H2 reports the name of the violated index and Postgres the constraint name, in different case
+    private static String violatedConstraint(final DataIntegrityViolationException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase(Locale.ROOT);
             }
-        } else {
-                location = locationService.createLocation(locationName);
         }
-        favorite.setLocation(location);
+        return "";
     }
 }
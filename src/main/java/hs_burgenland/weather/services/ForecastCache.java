@@ -0,0 +1,145 @@
+package hs_burgenland.weather.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import hs_burgenland.weather.entities.ForecastSeries;
+import hs_burgenland.weather.entities.Location;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Bounded cache for parsed Open-Meteo forecasts. Entries expire at the next model update
+ * (interval boundary plus delay) plus the refresh grace, so a cached forecast outlives the upstream data it was
+ * built from by at most the grace. ForecastPrefetcher replaces the entries of favorited locations within the grace.
+ * Hit, miss and eviction counts are published as the "forecasts" cache metrics.
+ * The last good forecast of every location is kept for the stale ttl beyond that, as fallback while
+ * Open-Meteo cannot be reached ("forecasts.last-good" cache metrics).
+ */
+@Component
+@EnableConfigurationProperties(ForecastCacheProperties.class)
+public class ForecastCache implements MeterBinder {
+    private final Cache<ForecastKey, ForecastSeries> cache;
+    private final Cache<ForecastKey, ForecastSeries> lastGood;
+    private final Duration modelUpdateInterval;
+    private final Duration modelUpdateDelay;
+    private final Duration refreshGrace;
+    private final Clock clock;
+
+    @Autowired
+    public ForecastCache(final ForecastCacheProperties properties) {
+        this(properties.getMaximumSize(), properties.getModelUpdateInterval(), properties.getModelUpdateDelay(),
+                properties.getRefreshGrace(), properties.getStaleTtl(), Clock.systemUTC());
+    }
+
+    ForecastCache(final long maximumSize, final Duration modelUpdateInterval, final Duration modelUpdateDelay,
+                  final Duration refreshGrace, final Duration staleTtl, final Clock clock) {
+        this.modelUpdateInterval = modelUpdateInterval;
+        this.modelUpdateDelay = modelUpdateDelay;
+        this.refreshGrace = refreshGrace;
+        this.clock = clock;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new ModelUpdateExpiry())
+                .recordStats()
+                .build();
+        this.lastGood = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(staleTtl)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<ForecastSeries> get(final Location location) {
+        return Optional.ofNullable(cache.getIfPresent(ForecastKey.of(location)));
+    }
+
+    // the cached series is stamped with the current model run and returned
+    public ForecastSeries put(final Location location, final ForecastSeries forecastSeries) {
+        final ForecastSeries cachedSeries = forecastSeries.withModelRun(currentModelRunMillis());
+        cache.put(ForecastKey.of(location), cachedSeries);
+        lastGood.put(ForecastKey.of(location), cachedSeries);
+        return cachedSeries;
+    }
+
+    public Optional<ForecastSeries> getLastGood(final Location location) {
+        return Optional.ofNullable(lastGood.getIfPresent(ForecastKey.of(location))).map(ForecastSeries::asStale);
+    }
+
+    // the last good forecast is kept
+    public void invalidate(final Location location) {
+        cache.invalidate(ForecastKey.of(location));
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "forecasts");
+        CaffeineCacheMetrics.monitor(registry, lastGood, "forecasts.last-good");
+    }
+
+    long nextModelUpdateMillis() {
+        return clock.millis() + timeToNextModelUpdate().toMillis();
+    }
+
+    // the model run current forecasts are built from, it was published one interval before the next update
+    long currentModelRunMillis() {
+        return nextModelUpdateMillis() - modelUpdateInterval.toMillis();
+    }
+
+    // how long the forecast stays current: until the model update after its model run, zero once it is superseded
+    // (entries are still served within the refresh grace) or its model run is unknown
+    public Duration timeToSupersede(final ForecastSeries forecastSeries) {
+        if (forecastSeries.getModelRunMillis() == 0) {
+            return Duration.ZERO;
+        }
+        final long supersededMillis = forecastSeries.getModelRunMillis() + modelUpdateInterval.toMillis();
+        return Duration.ofMillis(Math.max(0, supersededMillis - clock.millis()));
+    }
+
+    // how long a forecast retrieved now stays current
+    Duration timeToNextModelUpdate() {
+        final long now = clock.millis();
+        final long interval = modelUpdateInterval.toMillis();
+        final long delay = modelUpdateDelay.toMillis();
+        final long nextUpdate = Math.floorDiv(now - delay, interval) * interval + interval + delay;
+        return Duration.ofMillis(nextUpdate - now);
+    }
+
+    record ForecastKey(int locationId, double latitude, double longitude) {
+        static ForecastKey of(final Location location) {
+            return new ForecastKey(location.getId(), location.getLatitude(), location.getLongitude());
+        }
+    }
+
+    private final class ModelUpdateExpiry implements Expiry<ForecastKey, ForecastSeries> {
+        @Override
+        public long expireAfterCreate(final ForecastKey key, final ForecastSeries value, final long currentTime) {
+            return timeToNextModelUpdate().plus(refreshGrace).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(final ForecastKey key, final ForecastSeries value,
+                                      final long currentTime, final long currentDuration) {
+            return timeToNextModelUpdate().plus(refreshGrace).toNanos();
+        }
+
+        @Override
+        public long expireAfterRead(final ForecastKey key, final ForecastSeries value,
+                                    final long currentTime, final long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
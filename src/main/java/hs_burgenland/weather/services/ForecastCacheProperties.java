@@ -0,0 +1,22 @@
+package hs_burgenland.weather.services;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Size and expiry settings of the forecast cache (forecast.cache.* properties), shared by ForecastCache and
+ * ForecastPrefetcher so both work with the same refresh grace.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "forecast.cache")
+public class ForecastCacheProperties {
+    private long maximumSize = 1000;
+    private Duration modelUpdateInterval = Duration.ofHours(1);
+    private Duration modelUpdateDelay = Duration.ofMinutes(15);
+    private Duration refreshGrace = Duration.ofMinutes(5);
+    private Duration staleTtl = Duration.ofDays(1);
+}
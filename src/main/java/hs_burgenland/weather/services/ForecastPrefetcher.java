@@ -0,0 +1,235 @@
+package hs_burgenland.weather.services;
+
+import hs_burgenland.weather.entities.Location;
+import hs_burgenland.weather.repositories.FavoriteRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the forecasts of all favorited locations warm. A location is due again right after the model update
+ * that ends its cached forecast, plus a random offset within the spread so the refreshes do not all hit
+ * Open-Meteo at once. Refreshing within the cache's refresh grace means reads keep hitting the cache.
+ * Due locations wait in a timing wheel and are refreshed in batch requests, at most max-requests-per-minute.
+ * What exceeds the budget stays in the backlog for the next tick. More locations than the budget covers within
+ * the refresh grace are logged as a warning, as some of them then miss the cache after every model update.
+ * The favorited locations are synchronized from the database every sync interval.
+ */
+@Slf4j
+@Component
+public class ForecastPrefetcher implements SmartLifecycle, MeterBinder {
+    static final String PREFETCH_COUNTER = "forecast.prefetch";
+    private static final int WHEEL_SIZE = 1024;
+
+    @Value("${forecast.prefetch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${forecast.prefetch.tick:PT1S}")
+    private Duration tick;
+
+    @Value("${forecast.prefetch.spread:PT4M}")
+    private Duration spread;
+
+    @Value("${forecast.prefetch.retry-delay:PT1M}")
+    private Duration retryDelay;
+
+    @Value("${forecast.prefetch.sync-interval:PT5M}")
+    private Duration syncInterval;
+
+    @Value("${forecast.prefetch.max-requests-per-minute:60}")
+    private int maxRequestsPerMinute;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private WeatherForecastService weatherForecastService;
+
+    @Autowired
+    private ForecastCache forecastCache;
+
+    @Autowired
+    private ForecastCacheProperties forecastCacheProperties;
+
+    @Autowired
+    private Scheduler blockingScheduler;
+
+    private Clock clock = Clock.systemUTC();
+
+    private final Map<Integer, Location> locations = new ConcurrentHashMap<>();
+    // ids in the wheel, the backlog or a running refresh, guarded by this
+    private final Set<Integer> scheduled = new HashSet<>();
+    private final ArrayDeque<Integer> backlog = new ArrayDeque<>();
+    private TimingWheel<Integer> wheel;
+    private double budget;
+    private long budgetUpdatedMillis;
+    private Disposable syncs;
+    private Disposable ticks;
+
+    @PostConstruct
+    synchronized void initialize() {
+        wheel = new TimingWheel<>(tick, WHEEL_SIZE, clock.millis());
+        budgetUpdatedMillis = clock.millis();
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        syncs = Flux.interval(Duration.ZERO, syncInterval)
+                .onBackpressureDrop()
+                .concatMap(count -> Mono.fromRunnable(this::syncLocations).subscribeOn(blockingScheduler))
+                .subscribe();
+        ticks = Flux.interval(tick, tick)
+                .onBackpressureDrop()
+                .subscribe(count -> tick());
+    }
+
+    @Override
+    public void stop() {
+        if (ticks != null) {
+            ticks.dispose();
+            syncs.dispose();
+            ticks = null;
+            syncs = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return ticks != null;
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("forecast.prefetch.locations", locations, Map::size).register(registry);
+        Gauge.builder("forecast.prefetch.backlog", this, ForecastPrefetcher::backlogSize).register(registry);
+    }
+
+    void syncLocations() {
+        try {
+            final Map<Integer, Location> favoriteLocations = favoriteRepository.findFavoriteLocations().stream()
+                    .collect(Collectors.toMap(Location::getId, Function.identity(), (first, second) -> first));
+            locations.keySet().retainAll(favoriteLocations.keySet());
+            locations.putAll(favoriteLocations);
+            scheduleNewLocations(favoriteLocations.keySet());
+            log.debug("Prefetching forecasts of {} favorited locations.", favoriteLocations.size());
+            if (favoriteLocations.size() > refreshCapacity()) {
+                log.warn("{} favorited locations exceed the {} that can be prefetched within the refresh grace of {}, "
+                                + "raise forecast.prefetch.max-requests-per-minute or forecast.cache.refresh-grace.",
+                        favoriteLocations.size(), refreshCapacity(), forecastCacheProperties.getRefreshGrace());
+            }
+        } catch (RuntimeException e) {
+            log.error("Error while loading favorited locations.", e);
+        }
+    }
+
+    void tick() {
+        try {
+            for (final List<Location> batch : takeDueBatches(clock.millis())) {
+                refresh(batch);
+            }
+        } catch (RuntimeException e) {
+            log.error("Error while prefetching weather forecasts.", e);
+        }
+    }
+
+    // locations refreshed within the refresh grace after a model update, at full batches
+    int refreshCapacity() {
+        return (int) (maxRequestsPerMinute * forecastCacheProperties.getRefreshGrace().toMillis() / 60_000
+                * WeatherForecastService.MAX_LOCATIONS_PER_REQUEST);
+    }
+
+    synchronized int backlogSize() {
+        return backlog.size();
+    }
+
+    // new locations are fetched right away (spread out), known ones stay on their schedule
+    private synchronized void scheduleNewLocations(final Set<Integer> locationIds) {
+        final long now = clock.millis();
+        for (final Integer locationId : locationIds) {
+            if (scheduled.add(locationId)) {
+                wheel.schedule(locationId, now + jitter());
+            }
+        }
+    }
+
+    private synchronized List<List<Location>> takeDueBatches(final long now) {
+        budget = Math.min(maxRequestsPerMinute,
+                budget + (now - budgetUpdatedMillis) * maxRequestsPerMinute / 60_000.0);
+        budgetUpdatedMillis = now;
+        backlog.addAll(wheel.advance(now));
+
+        final List<List<Location>> batches = new ArrayList<>();
+        while (budget >= 1 && !backlog.isEmpty()) {
+            final List<Location> batch = new ArrayList<>(WeatherForecastService.MAX_LOCATIONS_PER_REQUEST);
+            while (batch.size() < WeatherForecastService.MAX_LOCATIONS_PER_REQUEST && !backlog.isEmpty()) {
+                final Integer locationId = backlog.poll();
+                final Location location = locations.get(locationId);
+                if (location == null) {
+                    // no longer favorited
+                    scheduled.remove(locationId);
+                } else {
+                    batch.add(location);
+                }
+            }
+            if (!batch.isEmpty()) {
+                budget--;
+                batches.add(batch);
+            }
+        }
+        return batches;
+    }
+
+    private void refresh(final List<Location> batch) {
+        weatherForecastService.refreshWeatherForecasts(batch).subscribe(
+                forecasts -> {
+                    Metrics.counter(PREFETCH_COUNTER, "result", "success").increment(batch.size());
+                    reschedule(batch, forecastCache.nextModelUpdateMillis());
+                },
+                error -> {
+                    log.warn("Error while prefetching weather forecasts of {} locations.", batch.size(), error);
+                    Metrics.counter(PREFETCH_COUNTER, "result", "failure").increment(batch.size());
+                    reschedule(batch, clock.millis() + retryDelay.toMillis());
+                });
+    }
+
+    private synchronized void reschedule(final List<Location> batch, final long deadlineMillis) {
+        for (final Location location : batch) {
+            if (locations.containsKey(location.getId())) {
+                wheel.schedule(location.getId(), deadlineMillis + jitter());
+            } else {
+                scheduled.remove(location.getId());
+            }
+        }
+    }
+
+    private long jitter() {
+        return spread.isZero() ? 0 : ThreadLocalRandom.current().nextLong(spread.toMillis());
+    }
+}
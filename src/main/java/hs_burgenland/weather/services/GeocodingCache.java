@@ -0,0 +1,141 @@
+package hs_burgenland.weather.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import hs_burgenland.weather.entities.GeocodingResult;
+import hs_burgenland.weather.entities.Location;
+import hs_burgenland.weather.repositories.GeocodingResultRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Geocoding results by normalized location name, kept in memory and in the geocoding_result table.
+ * Names without results are cached as well, but expire after the shorter negative ttl.
+ */
+@Component
+public class GeocodingCache implements MeterBinder {
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern SPACED_COMMA = Pattern.compile("\\s*,\\s*");
+
+    private final GeocodingResultRepository geocodingResultRepository;
+    private final Cache<String, GeocodingResult> cache;
+    private final Duration ttl;
+    private final Duration negativeTtl;
+    private final Clock clock;
+
+    @Autowired
+    public GeocodingCache(final GeocodingResultRepository geocodingResultRepository,
+                          @Value("${geocoding.cache.maximum-size:10000}") final long maximumSize,
+                          @Value("${geocoding.cache.ttl:P30D}") final Duration ttl,
+                          @Value("${geocoding.cache.negative-ttl:PT1H}") final Duration negativeTtl) {
+        this(geocodingResultRepository, maximumSize, ttl, negativeTtl, Clock.systemUTC());
+    }
+
+    GeocodingCache(final GeocodingResultRepository geocodingResultRepository, final long maximumSize,
+                   final Duration ttl, final Duration negativeTtl, final Clock clock) {
+        this.geocodingResultRepository = geocodingResultRepository;
+        this.ttl = ttl;
+        this.negativeTtl = negativeTtl;
+        this.clock = clock;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new ResultExpiry())
+                .recordStats()
+                .build();
+    }
+
+    public static String normalize(final String name) {
+        final String collapsed = WHITESPACE.matcher(name.trim()).replaceAll(" ");
+        return SPACED_COMMA.matcher(collapsed).replaceAll(",").toLowerCase(Locale.ROOT);
+    }
+
+    public Optional<GeocodingResult> get(final String name) {
+        final String normalizedName = normalize(name);
+        final GeocodingResult cachedResult = cache.getIfPresent(normalizedName);
+        if (cachedResult != null) {
+            return Optional.of(cachedResult);
+        }
+
+        final Optional<GeocodingResult> storedResult = geocodingResultRepository.findById(normalizedName)
+                .filter(result -> result.getExpiresAt().isAfter(clock.instant()));
+        storedResult.ifPresent(result -> cache.put(normalizedName, result));
+        return storedResult;
+    }
+
+    // the resolved name ("Graz,Austria") is stored as well, so later requests with that name are hits too
+    public void putFound(final String name, final Location location) {
+        final GeocodingResult result = new GeocodingResult();
+        result.setFound(true);
+        result.setName(location.getName());
+        result.setLatitude(location.getLatitude());
+        result.setLongitude(location.getLongitude());
+        result.setElevation(location.getElevation());
+        result.setExpiresAt(clock.instant().plus(ttl));
+
+        store(normalize(name), result);
+        final String normalizedLocationName = normalize(location.getName());
+        if (!normalizedLocationName.equals(normalize(name))) {
+            store(normalizedLocationName, copyOf(result));
+        }
+    }
+
+    public void putNotFound(final String name) {
+        final GeocodingResult result = new GeocodingResult();
+        result.setFound(false);
+        result.setExpiresAt(clock.instant().plus(negativeTtl));
+        store(normalize(name), result);
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "geocoding");
+    }
+
+    private void store(final String normalizedName, final GeocodingResult result) {
+        result.setNormalizedName(normalizedName);
+        geocodingResultRepository.save(result);
+        cache.put(normalizedName, result);
+    }
+
+    private static GeocodingResult copyOf(final GeocodingResult result) {
+        final GeocodingResult copy = new GeocodingResult();
+        copy.setFound(result.isFound());
+        copy.setName(result.getName());
+        copy.setLatitude(result.getLatitude());
+        copy.setLongitude(result.getLongitude());
+        copy.setElevation(result.getElevation());
+        copy.setExpiresAt(result.getExpiresAt());
+        return copy;
+    }
+
+    private final class ResultExpiry implements Expiry<String, GeocodingResult> {
+        @Override
+        public long expireAfterCreate(final String key, final GeocodingResult value, final long currentTime) {
+            return Math.max(0, Duration.between(clock.instant(), value.getExpiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(final String key, final GeocodingResult value,
+                                      final long currentTime, final long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(final String key, final GeocodingResult value,
+                                    final long currentTime, final long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package hs_burgenland.weather.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hs_burgenland.weather.entities.Location;
+import hs_burgenland.weather.entities.LocationImportResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bulk location import: names are geocoded and resolved to airports with bounded parallelism, deduplicated by
+ * coordinates within the import and against the table, and stored in chunks. Every name yields one result,
+ * emitted as soon as its chunk is stored.
+ */
+@Slf4j
+@Service
+public class LocationImportService {
+    @Autowired
+    private LocationService locationService;
+
+    @Autowired
+    private Scheduler blockingScheduler;
+
+    @Value("${locations.import.concurrency:8}")
+    private int concurrency;
+
+    @Value("${locations.import.batch-size:100}")
+    private int batchSize;
+
+    @Value("${locations.import.batch-timeout:PT1S}")
+    private Duration batchTimeout;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public Flux<LocationImportResult> importLocations(final InputStream body, final boolean ndjson) {
+        return importLocations(readNames(body, ndjson));
+    }
+
+    // blocks the calling thread, which writes every result as an NDJSON line as soon as its chunk is stored
+    public long importLocations(final InputStream body, final boolean ndjson, final OutputStream outputStream)
+            throws IOException {
+        long count = 0;
+        for (final LocationImportResult result : importLocations(body, ndjson).toIterable(batchSize)) {
+            outputStream.write(objectMapper.writeValueAsBytes(result));
+            outputStream.write('\n');
+            outputStream.flush();
+            count++;
+        }
+        return count;
+    }
+
+    public Flux<LocationImportResult> importLocations(final Flux<String> names) {
+        final Set<Coordinates> seenCoordinates = ConcurrentHashMap.newKeySet();
+        return names
+                .flatMap(name -> Mono.fromCallable(() -> resolve(name, seenCoordinates))
+                        .subscribeOn(blockingScheduler), concurrency)
+                .bufferTimeout(batchSize, batchTimeout)
+                .concatMap(batch -> Mono.fromCallable(() -> store(batch))
+                        .subscribeOn(blockingScheduler)
+                        .flatMapIterable(results -> results));
+    }
+
+    private Flux<String> readNames(final InputStream body, final boolean ndjson) {
+        return Flux.using(
+                        () -> new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)),
+                        reader -> Flux.fromStream(reader.lines()),
+                        LocationImportService::closeQuietly)
+                .map(line -> ndjson ? parseNdjsonLine(line) : parseCsvLine(line))
+                .filter(name -> !name.isBlank() && !"name".equalsIgnoreCase(name))
+                .subscribeOn(blockingScheduler);
+    }
+
+    // a line is either a json string or an object with a name field
+    private String parseNdjsonLine(final String line) {
+        if (line.isBlank()) {
+            return "";
+        }
+        try {
+            final JsonNode jsonNode = objectMapper.readTree(line);
+            return (jsonNode.isTextual() ? jsonNode.asText() : jsonNode.path("name").asText()).trim();
+        } catch (JsonProcessingException e) {
+            return line.trim();
+        }
+    }
+
+    // first column, optionally quoted so names like "Graz,Austria" can be imported
+    private static String parseCsvLine(final String line) {
+        final String trimmed = line.trim();
+        if (trimmed.startsWith("\"")) {
+            final int closingQuote = trimmed.indexOf('"', 1);
+            return (closingQuote < 0 ? trimmed.substring(1) : trimmed.substring(1, closingQuote)).trim();
+        }
+        final int comma = trimmed.indexOf(',');
+        return (comma < 0 ? trimmed : trimmed.substring(0, comma)).trim();
+    }
+
+    private Resolution resolve(final String name, final Set<Coordinates> seenCoordinates) {
+        try {
+            final Location location = locationService.resolveLocation(name);
+            if (!seenCoordinates.add(Coordinates.of(location)) || locationService.locationExists(location)) {
+                return Resolution.done(duplicate(name, location));
+            }
+            locationService.resolveAirport(location);
+            return new Resolution(name, location, null);
+        } catch (RuntimeException e) {
+            log.debug("Import of location {} failed.", name, e);
+            return Resolution.done(new LocationImportResult(name, LocationImportResult.Status.FAILED,
+                    null, e.getMessage()));
+        }
+    }
+
+    private List<LocationImportResult> store(final List<Resolution> batch) {
+        final List<Resolution> resolved = batch.stream().filter(resolution -> resolution.location() != null).toList();
+        if (!resolved.isEmpty()) {
+            try {
+                locationService.saveLocations(resolved.stream().map(Resolution::location).toList());
+            } catch (RuntimeException e) {
+                // a location created concurrently fails the whole chunk, the rest is stored one by one
+                log.warn("Storing {} imported locations failed, retrying one by one.", resolved.size(), e);
+                return batch.stream().map(this::storeSingle).toList();
+            }
+        }
+
+        final List<LocationImportResult> results = new ArrayList<>(batch.size());
+        for (final Resolution resolution : batch) {
+            results.add(resolution.location() == null ? resolution.result() : created(resolution));
+        }
+        return results;
+    }
+
+    private LocationImportResult storeSingle(final Resolution resolution) {
+        if (resolution.location() == null) {
+            return resolution.result();
+        }
+        // the chunk usually failed because another request or replica stored some of its locations meanwhile
+        if (locationService.locationExists(resolution.location())) {
+            return duplicate(resolution.name(), resolution.location());
+        }
+        try {
+            resolution.location().setId(0);
+            locationService.saveLocations(List.of(resolution.location()));
+            return created(resolution);
+        } catch (RuntimeException e) {
+            if (locationService.locationExists(resolution.location())) {
+                return duplicate(resolution.name(), resolution.location());
+            }
+            return new LocationImportResult(resolution.name(), LocationImportResult.Status.FAILED, null, e.getMessage());
+        }
+    }
+
+    private static LocationImportResult duplicate(final String name, final Location location) {
+        return new LocationImportResult(name, LocationImportResult.Status.DUPLICATE, null,
+                "Location " + location.getName() + " does already exist.");
+    }
+
+    private static LocationImportResult created(final Resolution resolution) {
+        return new LocationImportResult(resolution.name(), LocationImportResult.Status.CREATED,
+                resolution.location(), null);
+    }
+
+    private static void closeQuietly(final BufferedReader reader) {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            log.warn("Error while closing location import stream.", e);
+        }
+    }
+
+    private record Coordinates(double latitude, double longitude) {
+        private static Coordinates of(final Location location) {
+            return new Coordinates(location.getLatitude(), location.getLongitude());
+        }
+    }
+
+    private record Resolution(String name, Location location, LocationImportResult result) {
+        private static Resolution done(final LocationImportResult result) {
+            return new Resolution(result.getName(), null, result);
+        }
+    }
+}
@@ -3,13 +3,18 @@ package hs_burgenland.weather.services;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import hs_burgenland.weather.entities.GeocodingResult;
+import hs_burgenland.weather.entities.KeysetPage;
 import hs_burgenland.weather.entities.Location;
 import hs_burgenland.weather.exceptions.EntityAlreadyExistingException;
 import hs_burgenland.weather.exceptions.EntityNotFoundException;
 import hs_burgenland.weather.repositories.LocationRepository;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.logging.log4j.util.InternalException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -24,6 +29,12 @@ public class LocationService {
     @Autowired
     private ApiRequestService apiRequestService;
 
+    @Autowired
+    private GeocodingCache geocodingCache;
+
+    @Autowired
+    private AirportIndex airportIndex;
+
     final private ObjectMapper objectMapper;
 
     public LocationService() {
@@ -31,28 +42,65 @@ public class LocationService {
     }
 
     public Location createLocation(final String name) throws EntityAlreadyExistingException {
+        return saveLocation(prepareLocation(name));
+    }
+
+    /**
+     * Geocodes a new location and looks up its airport without storing it, so no database connection is held
+     * during the api requests.
+     */
+    public Location prepareLocation(final String name) throws EntityAlreadyExistingException {
+        final Location location = resolveLocation(name);
+        assertLocationDoesNotExist(location);
+        resolveAirport(location);
+        return location;
+    }
+
+    public Location saveLocation(final Location location) {
+        return locationRepository.save(location);
+    }
+
+    /**
+     * Geocodes a location name, the returned location is not stored and has no airport yet.
+     */
+    public Location resolveLocation(final String name) {
         try {
             final Location location = new Location();
             location.setName(name);
             storeLocationData(location);
-            assertLocationDoesNotExist(location);
-            storeAirportData(location);
+            return location;
+        } catch (JsonProcessingException e) {
+            log.error("Error while processing location data.", e);
+            throw new InternalException("Error while processing location data.", e);
+        }
+    }
 
-            return locationRepository.save(location);
+    public void resolveAirport(final Location location) {
+        try {
+            storeAirportData(location);
         } catch (JsonProcessingException e) {
             log.error("Error while processing location data.", e);
             throw new InternalException("Error while processing location data.", e);
         }
     }
 
+    public boolean locationExists(final Location location) {
+        return locationRepository.getLocationByLatitudeAndLongitude(location.getLatitude(), location.getLongitude()).isPresent();
+    }
+
+    // one transaction and one flush for all locations
+    public List<Location> saveLocations(final List<Location> locations) {
+        return locationRepository.saveAll(locations);
+    }
+
     private void assertLocationDoesNotExist(final Location location) throws EntityAlreadyExistingException {
-        if (locationRepository.getLocationByLatitudeAndLongitude(location.getLatitude(), location.getLongitude()).isPresent()) {
+        if (locationExists(location)) {
             throw new EntityAlreadyExistingException("Location " + location.getName() + " does already exist.");
         }
     }
 
-    public List<Location> getAllLocations() {
-        return locationRepository.findAll();
+    public KeysetPage<Location> getLocations(final int after, final int limit) {
+        return KeysetPage.of(locationRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limit + 1)), limit, Location::getId);
     }
 
     public Location getLocationById(final int id) throws EntityNotFoundException {
@@ -67,17 +115,31 @@ public class LocationService {
         locationRepository.deleteById(id);
     }
 
+    // best match first, Postgres answers the search from the pg_trgm index
     public Optional<Location> getLocationByName(final String name) {
-        return locationRepository.findByNameContaining(name).stream().findAny();
+        return locationRepository.findByNameContaining(name, Limit.of(1)).stream().findFirst();
     }
 
     private void storeLocationData(final Location location)
             throws JsonProcessingException {
+        final String requestedName = location.getName();
+        final Optional<GeocodingResult> cachedResult = geocodingCache.get(requestedName);
+        if (cachedResult.isPresent()) {
+            log.debug("Serving cached geocoding result for {}.", requestedName);
+            applyGeocodingResult(location, cachedResult.get());
+            return;
+        }
+
         final String retrievedLocationData = apiRequestService.retrieveLocationData(location);
 
-        final JsonNode jsonNode = objectMapper.readTree(retrievedLocationData).path("results").get(0);
+        final JsonNode rootNode = readTree(retrievedLocationData, "geocoding");
+        final JsonNode jsonNode = rootNode.path("results").get(0);
 
         if (jsonNode == null) {
+            // error responses are not cached, only names the geocoding api does not know
+            if (!rootNode.has("error")) {
+                geocodingCache.putNotFound(requestedName);
+            }
             throw new InternalException("Error while processing location data. No results found.");
         }
 
@@ -85,17 +147,44 @@ public class LocationService {
         location.setLatitude(jsonNode.path("latitude").asDouble());
         location.setLongitude(jsonNode.path("longitude").asDouble());
         location.setElevation(jsonNode.path("elevation").asDouble());
+        geocodingCache.putFound(requestedName, location);
+    }
+
+    private void applyGeocodingResult(final Location location, final GeocodingResult geocodingResult) {
+        if (!geocodingResult.isFound()) {
+            throw new InternalException("Error while processing location data. No results found.");
+        }
+
+        location.setName(geocodingResult.getName());
+        location.setLatitude(geocodingResult.getLatitude());
+        location.setLongitude(geocodingResult.getLongitude());
+        location.setElevation(geocodingResult.getElevation());
     }
 
     private void storeAirportData(final Location location)
             throws JsonProcessingException {
+        final Optional<String> indexedIcao = airportIndex.findNearestIcao(location.getLatitude(), location.getLongitude());
+        if (indexedIcao.isPresent()) {
+            location.setIcao(indexedIcao.get());
+            return;
+        }
+
         final String retrievedAirportData = apiRequestService.retrieveAirportData(location);
 
-        final JsonNode jsonNode = objectMapper.readTree(retrievedAirportData).get(0);
+        final JsonNode jsonNode = readTree(retrievedAirportData, "airport").get(0);
         if (jsonNode == null) {
             throw new InternalException("Error while processing location data. No results found.");
         }
 
         location.setIcao(jsonNode.path("station").path("icao").asText());
     }
+
+    private JsonNode readTree(final String content, final String payload) throws JsonProcessingException {
+        final Timer.Sample sample = Timer.start(Metrics.globalRegistry);
+        try {
+            return objectMapper.readTree(content);
+        } finally {
+            sample.stop(Metrics.timer(OpenMeteoForecastParser.JSON_PARSE_TIMER, "payload", payload));
+        }
+    }
 }
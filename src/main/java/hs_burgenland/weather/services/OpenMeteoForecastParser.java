@@ -0,0 +1,167 @@
+package hs_burgenland.weather.services;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import hs_burgenland.weather.entities.ForecastSeries;
+import hs_burgenland.weather.entities.Location;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.apache.logging.log4j.util.InternalException;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Decodes Open-Meteo forecast responses in a single pass over the token stream, without building a JsonNode tree.
+ * Responses for several coordinates are arrays with one forecast object per requested location.
+ */
+public class OpenMeteoForecastParser {
+    static final String JSON_PARSE_TIMER = "json.parse";
+    private static final int INITIAL_CAPACITY = 24;
+
+    private final JsonFactory jsonFactory;
+
+    public OpenMeteoForecastParser(final JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    public ForecastSeries parse(final Location location, final String retrievedWeatherData) throws IOException {
+        return parse(List.of(location), retrievedWeatherData).getFirst();
+    }
+
+    public List<ForecastSeries> parse(final List<Location> locations, final String retrievedWeatherData)
+            throws IOException {
+        final Timer.Sample sample = Timer.start(Metrics.globalRegistry);
+        try (JsonParser parser = jsonFactory.createParser(retrievedWeatherData)) {
+            final List<ForecastSeries> forecasts = new ArrayList<>(locations.size());
+            final JsonToken firstToken = parser.nextToken();
+
+            if (firstToken == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    if (forecasts.size() == locations.size()) {
+                        throw new InternalException("Error while processing weather data. Wrong number of locations.");
+                    }
+                    forecasts.add(parseForecast(parser, locations.get(forecasts.size())));
+                }
+            } else if (firstToken == JsonToken.START_OBJECT) {
+                forecasts.add(parseForecast(parser, locations.getFirst()));
+            } else {
+                throw new InternalException("Error while processing location data. Wrong location.");
+            }
+
+            if (forecasts.size() != locations.size()) {
+                throw new InternalException("Error while processing weather data. Wrong number of locations.");
+            }
+            return forecasts;
+        } finally {
+            sample.stop(Metrics.timer(JSON_PARSE_TIMER, "payload", "forecast"));
+        }
+    }
+
+    private ForecastSeries parseForecast(final JsonParser parser, final Location location) throws IOException {
+        final HourlyData hourlyData = new HourlyData();
+        double latitude = 0;
+        double longitude = 0;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String fieldName = parser.currentName();
+            parser.nextToken();
+            switch (fieldName) {
+                case "latitude" -> latitude = parser.getValueAsDouble();
+                case "longitude" -> longitude = parser.getValueAsDouble();
+                case "hourly" -> parseHourly(parser, hourlyData);
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (Math.round(latitude) != Math.round(location.getLatitude())
+                || Math.round(longitude) != Math.round(location.getLongitude())) {
+            throw new InternalException("Error while processing location data. Wrong location.");
+        }
+
+        return hourlyData.toForecastSeries();
+    }
+
+    private void parseHourly(final JsonParser parser, final HourlyData hourlyData) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String fieldName = parser.currentName();
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                continue;
+            }
+            switch (fieldName) {
+                case "time" -> readTimes(parser, hourlyData);
+                case "temperature_2m" -> hourlyData.temperatures = readTemperatures(parser);
+                case "relative_humidity_2m" -> hourlyData.humidities = readHumidities(parser);
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    // only start and step are kept, every further timestamp has to continue the even spacing
+    private static void readTimes(final JsonParser parser, final HourlyData hourlyData) throws IOException {
+        int size = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            final long epochSecond = ForecastSeries.toEpochSecond(
+                    LocalDateTime.parse(parser.getText(), DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            if (size == 0) {
+                hourlyData.startEpochSecond = epochSecond;
+            } else if (size == 1) {
+                hourlyData.stepSeconds = (int) (epochSecond - hourlyData.startEpochSecond);
+            } else if (epochSecond != hourlyData.startEpochSecond + (long) size * hourlyData.stepSeconds) {
+                throw new InternalException("Error while processing weather data. Uneven hourly data.");
+            }
+            size++;
+        }
+        hourlyData.timeCount = size;
+    }
+
+    private static float[] readTemperatures(final JsonParser parser) throws IOException {
+        float[] values = new float[INITIAL_CAPACITY];
+        int size = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = (float) parser.getValueAsDouble();
+        }
+        return Arrays.copyOf(values, size);
+    }
+
+    private static byte[] readHumidities(final JsonParser parser) throws IOException {
+        byte[] values = new byte[INITIAL_CAPACITY];
+        int size = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = ForecastSeries.toHumidity(parser.getValueAsInt());
+        }
+        return Arrays.copyOf(values, size);
+    }
+
+    private static final class HourlyData {
+        private long startEpochSecond;
+        private int stepSeconds;
+        private int timeCount;
+        private float[] temperatures = new float[0];
+        private byte[] humidities = new byte[0];
+
+        private ForecastSeries toForecastSeries() {
+            if (temperatures.length != timeCount || humidities.length != timeCount) {
+                throw new InternalException("Error while processing weather data. Incomplete hourly data.");
+            }
+            return new ForecastSeries(startEpochSecond, stepSeconds, temperatures, humidities);
+        }
+    }
+}
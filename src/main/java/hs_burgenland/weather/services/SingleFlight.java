@@ -0,0 +1,45 @@
+package hs_burgenland.weather.services;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads for the same key. The first caller runs the loader, every caller arriving
+ * while that load is in flight receives the same future. The entry is removed as soon as the load completes,
+ * so a failure reaches all current waiters but never poisons later attempts.
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    public CompletableFuture<V> execute(final K key, final Supplier<CompletableFuture<V>> loader) {
+        final CompletableFuture<V> promise = new CompletableFuture<>();
+        final CompletableFuture<V> existing = inFlight.putIfAbsent(key, promise);
+        if (existing != null) {
+            return existing;
+        }
+
+        startLoad(loader).whenComplete((value, error) -> {
+            inFlight.remove(key, promise);
+            if (error == null) {
+                promise.complete(value);
+            } else {
+                promise.completeExceptionally(error);
+            }
+        });
+        return promise;
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private CompletableFuture<V> startLoad(final Supplier<CompletableFuture<V>> loader) {
+        try {
+            return loader.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package hs_burgenland.weather.services;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Static 3-d tree over stations projected onto the unit sphere. The straight-line (chord) distance between
+ * two points grows with their great-circle distance, so the nearest point in 3-d is the nearest station.
+ */
+final class StationKdTree {
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final int DIMENSIONS = 3;
+
+    private final String[] icaos;
+    private final double[][] points;
+
+    StationKdTree(final List<Station> stations) {
+        final List<Station> ordered = new ArrayList<>(stations);
+        icaos = new String[ordered.size()];
+        points = new double[ordered.size()][];
+        build(ordered, 0, ordered.size(), 0);
+    }
+
+    int size() {
+        return icaos.length;
+    }
+
+    Optional<NearestStation> nearest(final double latitude, final double longitude) {
+        if (icaos.length == 0) {
+            return Optional.empty();
+        }
+        final Search search = new Search(toPoint(latitude, longitude));
+        search(search, 0, icaos.length, 0);
+        final double chord = Math.sqrt(search.bestDistance);
+        final double distanceKm = 2 * Math.asin(Math.min(1.0, chord / 2)) * EARTH_RADIUS_KM;
+        return Optional.of(new NearestStation(icaos[search.bestIndex], distanceKm));
+    }
+
+    // the node of a range is stored at its middle index, the halves left and right of it are its subtrees
+    private void build(final List<Station> stations, final int from, final int to, final int depth) {
+        if (from >= to) {
+            return;
+        }
+        final int axis = depth % DIMENSIONS;
+        stations.subList(from, to).sort(Comparator.comparingDouble(station -> station.point()[axis]));
+        final int middle = (from + to) >>> 1;
+        icaos[middle] = stations.get(middle).icao();
+        points[middle] = stations.get(middle).point();
+        build(stations, from, middle, depth + 1);
+        build(stations, middle + 1, to, depth + 1);
+    }
+
+    private void search(final Search search, final int from, final int to, final int depth) {
+        if (from >= to) {
+            return;
+        }
+        final int middle = (from + to) >>> 1;
+        final double[] point = points[middle];
+        final double distance = squaredDistance(point, search.target);
+        if (distance < search.bestDistance) {
+            search.bestDistance = distance;
+            search.bestIndex = middle;
+        }
+
+        final int axis = depth % DIMENSIONS;
+        final double delta = search.target[axis] - point[axis];
+        if (delta < 0) {
+            search(search, from, middle, depth + 1);
+            if (delta * delta < search.bestDistance) {
+                search(search, middle + 1, to, depth + 1);
+            }
+        } else {
+            search(search, middle + 1, to, depth + 1);
+            if (delta * delta < search.bestDistance) {
+                search(search, from, middle, depth + 1);
+            }
+        }
+    }
+
+    private static double squaredDistance(final double[] a, final double[] b) {
+        final double dx = a[0] - b[0];
+        final double dy = a[1] - b[1];
+        final double dz = a[2] - b[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    static double[] toPoint(final double latitude, final double longitude) {
+        final double lat = Math.toRadians(latitude);
+        final double lon = Math.toRadians(longitude);
+        return new double[] {Math.cos(lat) * Math.cos(lon), Math.cos(lat) * Math.sin(lon), Math.sin(lat)};
+    }
+
+    record Station(String icao, double[] point) {
+        static Station of(final String icao, final double latitude, final double longitude) {
+            return new Station(icao, toPoint(latitude, longitude));
+        }
+    }
+
+    record NearestStation(String icao, double distanceKm) {
+    }
+
+    private static final class Search {
+        private final double[] target;
+        private double bestDistance = Double.MAX_VALUE;
+        private int bestIndex = -1;
+
+        private Search(final double[] target) {
+            this.target = target;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package hs_burgenland.weather.services;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Hashed timing wheel: a ring of buckets, one per tick, each holding the items due in that tick.
+ * Deadlines further away than one revolution wait out the remaining rounds in their bucket.
+ * Scheduling is O(1) and advancing one tick only touches a single bucket, independent of the number of items.
+ * Not thread safe, callers synchronize.
+ */
+public class TimingWheel<T> {
+    private final long tickMillis;
+    private final long startMillis;
+    private final ArrayDeque<Entry<T>>[] buckets;
+    private final int mask;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(final Duration tick, final int wheelSize, final long startMillis) {
+        if (tick.toMillis() <= 0) {
+            throw new IllegalArgumentException("Tick must be at least one millisecond.");
+        }
+        if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two.");
+        }
+        this.tickMillis = tick.toMillis();
+        this.startMillis = startMillis;
+        this.buckets = new ArrayDeque[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.mask = wheelSize - 1;
+    }
+
+    // deadlines in the past are due with the next tick
+    public void schedule(final T item, final long deadlineMillis) {
+        final long deadlineTick = Math.max(Math.ceilDiv(deadlineMillis - startMillis, tickMillis), currentTick + 1);
+        final long rounds = (deadlineTick - currentTick - 1) / buckets.length;
+        buckets[(int) (deadlineTick & mask)].add(new Entry<>(item, rounds));
+        size++;
+    }
+
+    // moves the wheel up to now and returns the items that became due, in deadline tick order
+    public List<T> advance(final long nowMillis) {
+        final long targetTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        final List<T> dueItems = new ArrayList<>();
+        while (currentTick < targetTick) {
+            currentTick++;
+            final Iterator<Entry<T>> entries = buckets[(int) (currentTick & mask)].iterator();
+            while (entries.hasNext()) {
+                final Entry<T> entry = entries.next();
+                if (entry.rounds <= 0) {
+                    entries.remove();
+                    dueItems.add(entry.item);
+                    size--;
+                } else {
+                    entry.rounds--;
+                }
+            }
+        }
+        return dueItems;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static final class Entry<T> {
+        private final T item;
+        private long rounds;
+
+        private Entry(final T item, final long rounds) {
+            this.item = item;
+            this.rounds = rounds;
+        }
+    }
+}
@@ -1,14 +1,14 @@
 package hs_burgenland.weather.services;
 
+import hs_burgenland.weather.entities.KeysetPage;
 import hs_burgenland.weather.entities.User;
 import hs_burgenland.weather.exceptions.EntityNotFoundException;
 import hs_burgenland.weather.repositories.UserRepository;
 import hs_burgenland.weather.exceptions.EntityAlreadyExistingException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-
 @Service
 public class UserService {
     @Autowired
@@ -31,8 +31,13 @@ public class UserService {
                 .orElseThrow(() -> new EntityNotFoundException("User with id " + id + " not found."));
     }
 
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    // asks the database, the second-level cache can still hold a user deleted on another replica
+    public boolean userExists(final int id) {
+        return userRepository.existsById(id);
+    }
+
+    public KeysetPage<User> getUsers(final int after, final int limit) {
+        return KeysetPage.of(userRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limit + 1)), limit, User::getId);
     }
 
     public void deleteUser(final int id) throws EntityNotFoundException {
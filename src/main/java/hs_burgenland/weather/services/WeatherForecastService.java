@@ -1,21 +1,27 @@
 package hs_burgenland.weather.services;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
 import hs_burgenland.weather.entities.Favorite;
+import hs_burgenland.weather.entities.FavoriteForecast;
+import hs_burgenland.weather.entities.ForecastSeries;
 import hs_burgenland.weather.entities.Location;
-import hs_burgenland.weather.entities.WeatherRecord;
 import hs_burgenland.weather.exceptions.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.logging.log4j.util.InternalException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Slf4j
 @Service
@@ -26,49 +32,177 @@ public class WeatherForecastService {
     @Autowired
     private ApiRequestService apiRequestService;
 
-    final private ObjectMapper objectMapper;
+    @Autowired
+    private ForecastCache forecastCache;
+
+    @Autowired
+    private Scheduler blockingScheduler;
+
+    static final int MAX_LOCATIONS_PER_REQUEST = 50;
+
+    final private SingleFlight<ForecastCache.ForecastKey, ForecastSeries> forecastLoads = new SingleFlight<>();
+
+    final private OpenMeteoForecastParser forecastParser;
 
     public WeatherForecastService() {
-        this.objectMapper = new ObjectMapper();
+        this.forecastParser = new OpenMeteoForecastParser(new JsonFactory());
     }
 
-    public List<WeatherRecord> getWeatherForecast(final Favorite favorite) throws EntityNotFoundException {
+    public ForecastSeries getWeatherForecast(final Favorite favorite) throws EntityNotFoundException {
         log.info("Getting weather forecast.");
+        final Location location = locationService.getLocationById(favorite.getLocation().getId());
+        final Optional<ForecastSeries> cachedForecast = forecastCache.get(location);
+        if (cachedForecast.isPresent()) {
+            log.debug("Serving cached weather forecast for location {}.", location.getId());
+            return cachedForecast.get();
+        }
+
         try {
-            final Location location = locationService.getLocationById(favorite.getLocation().getId());
-            return processWeatherData(location);
-        } catch (JsonProcessingException e) {
-            log.error("Error while processing weather data.", e);
-            throw new InternalException("Error while processing weather data.", e);
+            return forecastLoads.execute(ForecastCache.ForecastKey.of(location), () -> loadWeatherData(location)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new InternalException("Error while processing weather data.", e.getCause());
         }
     }
 
-    private List<WeatherRecord> processWeatherData(final Location location)
-            throws JsonProcessingException {
-        final String retrievedLocationData = apiRequestService.retrieveWeatherForecast(location);
+    public Mono<ForecastSeries> getWeatherForecastReactive(final Favorite favorite) {
+        log.info("Getting weather forecast.");
+        return Mono.fromCallable(() -> locationService.getLocationById(favorite.getLocation().getId()))
+                .subscribeOn(blockingScheduler)
+                .flatMap(this::retrieveForecastSeries);
+    }
 
-        final JsonNode jsonNode = objectMapper.readTree(retrievedLocationData);
+    public List<FavoriteForecast> getWeatherForecasts(final List<Favorite> favorites) {
+        log.info("Getting weather forecasts for {} favorites.", favorites.size());
+        final Map<ForecastCache.ForecastKey, ForecastSeries> forecasts = new HashMap<>();
+        final Map<ForecastCache.ForecastKey, Location> missingLocations = new LinkedHashMap<>();
 
-        if (jsonNode == null ||
-                Math.round(jsonNode.path("latitude").asDouble()) != Math.round(location.getLatitude())
-        || Math.round(jsonNode.path("longitude").asDouble()) != Math.round(location.getLongitude())) {
-            throw new InternalException("Error while processing location data. Wrong location.");
+        for (final Favorite favorite : favorites) {
+            final ForecastCache.ForecastKey key = ForecastCache.ForecastKey.of(favorite.getLocation());
+            if (forecasts.containsKey(key) || missingLocations.containsKey(key)) {
+                continue;
+            }
+            final Optional<ForecastSeries> cachedForecast = forecastCache.get(favorite.getLocation());
+            if (cachedForecast.isPresent()) {
+                forecasts.put(key, cachedForecast.get());
+            } else {
+                missingLocations.put(key, favorite.getLocation());
+            }
         }
 
-        final List<WeatherRecord> weatherRecords = new ArrayList<>();
+        final List<Location> locations = new ArrayList<>(missingLocations.values());
+        for (int from = 0; from < locations.size(); from += MAX_LOCATIONS_PER_REQUEST) {
+            final List<Location> batch = locations.subList(from, Math.min(from + MAX_LOCATIONS_PER_REQUEST, locations.size()));
+            List<ForecastSeries> batchForecasts;
+            try {
+                batchForecasts = processAndCacheWeatherData(batch, apiRequestService.retrieveWeatherForecasts(batch));
+            } catch (RuntimeException e) {
+                batchForecasts = lastGoodForecasts(batch, e);
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                forecasts.put(ForecastCache.ForecastKey.of(batch.get(i)), batchForecasts.get(i));
+            }
+        }
+
+        return favorites.stream()
+                .map(favorite -> new FavoriteForecast(favorite.getId(), favorite.getName(),
+                        forecasts.get(ForecastCache.ForecastKey.of(favorite.getLocation()))))
+                .toList();
+    }
 
-        final JsonNode timeArray = jsonNode.path("hourly").path("time");
-        final JsonNode temperatureArray = jsonNode.path("hourly").path("temperature_2m");
-        final JsonNode humidityArray = jsonNode.path("hourly").path("relative_humidity_2m");
+    // one upstream call for up to MAX_LOCATIONS_PER_REQUEST locations, cached entries are replaced
+    public Mono<List<ForecastSeries>> refreshWeatherForecasts(final List<Location> locations) {
+        if (locations.size() > MAX_LOCATIONS_PER_REQUEST) {
+            return Mono.error(new IllegalArgumentException(
+                    "At most " + MAX_LOCATIONS_PER_REQUEST + " locations can be refreshed at once."));
+        }
+        return apiRequestService.retrieveWeatherForecastsReactive(locations)
+                .switchIfEmpty(Mono.error(new InternalException("Error while processing weather data. No data received.")))
+                .map(retrievedWeatherData -> processAndCacheWeatherData(locations, retrievedWeatherData));
+    }
 
-        for (int i = 0; i < timeArray.size(); i++) {
-            weatherRecords
-                    .add(new WeatherRecord(
-                            LocalDateTime.parse(timeArray.get(i).asText(), DateTimeFormatter.ISO_LOCAL_DATE_TIME),
-                            temperatureArray.get(i).asDouble(),
-                            humidityArray.get(i).asInt()));
+    private Mono<ForecastSeries> retrieveForecastSeries(final Location location) {
+        final Optional<ForecastSeries> cachedForecast = forecastCache.get(location);
+        if (cachedForecast.isPresent()) {
+            log.debug("Serving cached weather forecast for location {}.", location.getId());
+            return Mono.just(cachedForecast.get());
         }
 
-        return weatherRecords;
+        // cancellation of one subscriber must not cancel the load shared with other waiters
+        return Mono.fromFuture(() -> forecastLoads.execute(ForecastCache.ForecastKey.of(location),
+                () -> loadWeatherDataReactive(location)), true);
+    }
+
+    private CompletableFuture<ForecastSeries> loadWeatherData(final Location location) {
+        final Optional<ForecastSeries> cachedForecast = forecastCache.get(location);
+        if (cachedForecast.isPresent()) {
+            return CompletableFuture.completedFuture(cachedForecast.get());
+        }
+
+        try {
+            return CompletableFuture.completedFuture(
+                    processAndCacheWeatherData(location, apiRequestService.retrieveWeatherForecast(location)));
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(lastGoodForecast(location, e).orElseThrow(() -> e));
+        }
+    }
+
+    private CompletableFuture<ForecastSeries> loadWeatherDataReactive(final Location location) {
+        final Optional<ForecastSeries> cachedForecast = forecastCache.get(location);
+        if (cachedForecast.isPresent()) {
+            return CompletableFuture.completedFuture(cachedForecast.get());
+        }
+
+        return apiRequestService.retrieveWeatherForecastReactive(location)
+                .switchIfEmpty(Mono.error(new InternalException("Error while processing weather data. No data received.")))
+                .map(retrievedWeatherData -> processAndCacheWeatherData(location, retrievedWeatherData))
+                .onErrorResume(error -> lastGoodForecast(location, error)
+                        .map(Mono::just)
+                        .orElseGet(() -> Mono.error(error)))
+                .toFuture();
+    }
+
+    // stale while error: a failed or rejected (open circuit breaker, full bulkhead) retrieval falls back
+    // to the last good forecast of the location, marked as stale
+    private Optional<ForecastSeries> lastGoodForecast(final Location location, final Throwable error) {
+        final Optional<ForecastSeries> lastGood = forecastCache.getLastGood(location);
+        if (lastGood.isPresent()) {
+            log.warn("Serving stale weather forecast for location {}: {}", location.getId(), error.getMessage());
+        }
+        return lastGood;
+    }
+
+    private List<ForecastSeries> lastGoodForecasts(final List<Location> locations, final RuntimeException error) {
+        final List<ForecastSeries> forecasts = new ArrayList<>(locations.size());
+        for (final Location location : locations) {
+            forecasts.add(lastGoodForecast(location, error).orElseThrow(() -> error));
+        }
+        return forecasts;
+    }
+
+    private ForecastSeries processAndCacheWeatherData(final Location location, final String retrievedWeatherData) {
+        try {
+            return forecastCache.put(location, forecastParser.parse(location, retrievedWeatherData));
+        } catch (IOException e) {
+            log.error("Error while processing weather data.", e);
+            throw new InternalException("Error while processing weather data.", e);
+        }
+    }
+
+    private List<ForecastSeries> processAndCacheWeatherData(final List<Location> locations,
+                                                                final String retrievedWeatherData) {
+        try {
+            final List<ForecastSeries> parsedForecasts = forecastParser.parse(locations, retrievedWeatherData);
+            final List<ForecastSeries> forecasts = new ArrayList<>(parsedForecasts.size());
+            for (int i = 0; i < locations.size(); i++) {
+                forecasts.add(forecastCache.put(locations.get(i), parsedForecasts.get(i)));
+            }
+            return forecasts;
+        } catch (IOException e) {
+            log.error("Error while processing weather data.", e);
+            throw new InternalException("Error while processing weather data.", e);
+        }
     }
 }
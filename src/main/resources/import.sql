@@ -1,3 +1,7 @@
+-- trigram index for the LOWER(name) LIKE '%...%' search of LocationRepository.findByNameContaining
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS location_name_trgm_idx ON location USING gin (LOWER(name) gin_trgm_ops);
+
 INSERT INTO users (id, firstname, lastname) VALUES (1, 'Jane', 'Doe') ON CONFLICT (id) DO NOTHING;
 
 -- Testdata
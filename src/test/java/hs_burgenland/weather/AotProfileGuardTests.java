@@ -0,0 +1,44 @@
+package hs_burgenland.weather;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AotProfileGuardTests {
+    @Test
+    void buildProfiles_fromRecordedResource() {
+        assertEquals(Set.of("fast-start", "virtual"), AotProfileGuard.buildProfiles(
+                new ByteArrayResource("profiles=virtual,fast-start\n".getBytes(StandardCharsets.UTF_8))));
+        assertEquals(Set.of(), AotProfileGuard.buildProfiles(
+                new ByteArrayResource("profiles=\n".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    void buildProfiles_notRecorded() {
+        assertThrows(IllegalStateException.class,
+                () -> AotProfileGuard.buildProfiles(new ClassPathResource("missing/aot-profiles.properties")));
+    }
+
+    @Test
+    void check_sameProfiles() {
+        assertDoesNotThrow(() -> AotProfileGuard.check(Set.of("fast-start", "virtual"),
+                Set.of("virtual", "fast-start")));
+    }
+
+    @Test
+    void check_otherProfiles() {
+        final IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> AotProfileGuard.check(Set.of("fast-start"), Set.of("fast-start", "virtual")));
+
+        assertTrue(exception.getMessage().contains("[fast-start]"));
+        assertThrows(IllegalStateException.class, () -> AotProfileGuard.check(Set.of("fast-start"), Set.of()));
+    }
+}
@@ -0,0 +1,107 @@
+package hs_burgenland.weather;
+
+import hs_burgenland.weather.entities.User;
+import hs_burgenland.weather.exceptions.EntityAlreadyExistingException;
+import hs_burgenland.weather.exceptions.EntityNotFoundException;
+import hs_burgenland.weather.repositories.UserRepository;
+import hs_burgenland.weather.services.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "forecast.prefetch.enabled=false"
+})
+class HibernateCacheIntegrationTests {
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() throws EntityAlreadyExistingException {
+        userService.createUser("John", "Doe");
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    // the rows are removed behind Hibernate's back, so the cached state has to go as well
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM users");
+        jdbcTemplate.execute("ALTER TABLE users ALTER COLUMN id RESTART WITH 1");
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @Test
+    void getUserById_servedFromCache() throws EntityNotFoundException {
+        userService.getUserById(1);
+        statistics.clear();
+
+        assertEquals("John", userService.getUserById(1).getFirstname());
+        assertEquals("John", userService.getUserById(1).getFirstname());
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getDomainDataRegionStatistics(User.CACHE_REGION).getHitCount());
+    }
+
+    @Test
+    void deleteUser_evictsEntry() throws EntityNotFoundException {
+        userService.deleteUser(1);
+
+        assertThrows(EntityNotFoundException.class, () -> userService.getUserById(1));
+    }
+
+    @Test
+    void getUserByFirstnameAndLastname_queryCached() {
+        userRepository.getUserByFirstnameAndLastname("Max", "Muster");
+        userRepository.getUserByFirstnameAndLastname("Max", "Muster");
+
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void createUser_invalidatesQueryCache() throws EntityAlreadyExistingException {
+        assertTrue(userRepository.getUserByFirstnameAndLastname("Max", "Muster").isEmpty());
+
+        userService.createUser("Max", "Muster");
+
+        assertTrue(userRepository.getUserByFirstnameAndLastname("Max", "Muster").isPresent());
+        assertThrows(EntityAlreadyExistingException.class, () -> userService.createUser("Max", "Muster"));
+    }
+
+    @Test
+    void hitRatio_exposedPerRegion() throws EntityNotFoundException {
+        userService.getUserById(1);
+        statistics.clear();
+        userService.getUserById(1);
+
+        assertEquals(1.0, meterRegistry.get(HibernateCacheConfig.REGION_HIT_RATIO)
+                .tag("region", User.CACHE_REGION).gauge().value());
+        assertTrue(Double.isNaN(meterRegistry.get(HibernateCacheConfig.QUERY_HIT_RATIO).gauge().value()));
+    }
+}
@@ -0,0 +1,125 @@
+package hs_burgenland.weather;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.UnknownFieldSet;
+import hs_burgenland.weather.entities.Favorite;
+import hs_burgenland.weather.entities.FavoriteForecast;
+import hs_burgenland.weather.entities.FavoriteSummary;
+import hs_burgenland.weather.entities.ForecastSeries;
+import hs_burgenland.weather.entities.KeysetPage;
+import hs_burgenland.weather.entities.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProtobufMessageConverterTests {
+    private final ProtobufMessageConverter converter = new ProtobufMessageConverter();
+
+    @Test
+    void canWrite_favoriteElementsOnly() {
+        assertTrue(converter.canWrite(ForecastSeries.class, ProtobufMessageConverter.PROTOBUF));
+        assertTrue(converter.canWrite(new ParameterizedTypeReference<List<FavoriteSummary>>() { }.getType(),
+                ArrayList.class, ProtobufMessageConverter.PROTOBUF));
+        assertTrue(converter.canWrite(new ParameterizedTypeReference<List<FavoriteForecast>>() { }.getType(),
+                ArrayList.class, ProtobufMessageConverter.PROTOBUF));
+        assertFalse(converter.canWrite(new ParameterizedTypeReference<List<User>>() { }.getType(),
+                ArrayList.class, ProtobufMessageConverter.PROTOBUF));
+        assertFalse(converter.canWrite(new ParameterizedTypeReference<List<Favorite>>() { }.getType(),
+                ArrayList.class, ProtobufMessageConverter.PROTOBUF));
+        assertFalse(converter.canWrite(new ParameterizedTypeReference<KeysetPage<FavoriteSummary>>() { }.getType(),
+                KeysetPage.class, ProtobufMessageConverter.PROTOBUF));
+        // ResponseEntity<?> does not tell the element type
+        assertFalse(converter.canWrite(Object.class, ArrayList.class, ProtobufMessageConverter.PROTOBUF));
+        assertFalse(converter.canWrite(List.class, ProtobufMessageConverter.PROTOBUF));
+        assertFalse(converter.canWrite(ForecastSeries.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(String.class, ProtobufMessageConverter.PROTOBUF));
+        assertFalse(converter.canRead(List.class, ProtobufMessageConverter.PROTOBUF));
+    }
+
+    @Test
+    void write_forecastSeries() throws IOException {
+        final ForecastSeries forecastSeries = TestdataGenerator.generateForecastSeries().asStale();
+
+        final UnknownFieldSet message = write(forecastSeries);
+
+        assertEquals(forecastSeries.getStartEpochSecond(), message.getField(1).getVarintList().getFirst());
+        assertEquals(3600, message.getField(2).getVarintList().getFirst());
+        final CodedInputStream temperatures = message.getField(3).getLengthDelimitedList().getFirst().newCodedInput();
+        final CodedInputStream humidities = message.getField(4).getLengthDelimitedList().getFirst().newCodedInput();
+        for (int i = 0; i < forecastSeries.size(); i++) {
+            assertEquals(forecastSeries.getTemperature(i), temperatures.readFloat());
+            assertEquals(forecastSeries.getHumidity(i), humidities.readInt32());
+        }
+        assertTrue(temperatures.isAtEnd());
+        assertTrue(humidities.isAtEnd());
+        assertEquals(1, message.getField(5).getVarintList().getFirst());
+    }
+
+    @Test
+    void write_favoriteList() throws IOException {
+        final FavoriteSummary favorite = TestdataGenerator.generateFavoriteSummaryTestdata();
+
+        final UnknownFieldSet message = write(List.of(favorite, favorite));
+
+        assertEquals(2, message.getField(1).getLengthDelimitedList().size());
+        final UnknownFieldSet favoriteMessage = UnknownFieldSet.parseFrom(
+                message.getField(1).getLengthDelimitedList().getFirst());
+        assertEquals(favorite.getName(),
+                favoriteMessage.getField(2).getLengthDelimitedList().getFirst().toStringUtf8());
+        final UnknownFieldSet location = UnknownFieldSet.parseFrom(
+                favoriteMessage.getField(4).getLengthDelimitedList().getFirst());
+        assertEquals(favorite.getLocation().getLatitude(),
+                Double.longBitsToDouble(location.getField(2).getFixed64List().getFirst()));
+        assertEquals(favorite.getLocation().getIcao(),
+                location.getField(6).getLengthDelimitedList().getFirst().toStringUtf8());
+    }
+
+    @Test
+    void write_favoriteForecasts() throws IOException {
+        final ForecastSeries forecastSeries = TestdataGenerator.generateForecastSeries();
+
+        final UnknownFieldSet message = write(List.of(new FavoriteForecast(3, "Home", forecastSeries)));
+
+        final UnknownFieldSet favoriteForecast = UnknownFieldSet.parseFrom(
+                message.getField(1).getLengthDelimitedList().getFirst());
+        assertEquals(3, favoriteForecast.getField(1).getVarintList().getFirst());
+        final ByteString forecast = favoriteForecast.getField(3).getLengthDelimitedList().getFirst();
+        assertEquals(forecastSeries.size() * Float.BYTES, UnknownFieldSet.parseFrom(forecast)
+                .getField(3).getLengthDelimitedList().getFirst().size());
+    }
+
+    @Test
+    void write_emptyList() throws IOException {
+        final MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+        converter.write(List.of(), ProtobufMessageConverter.PROTOBUF, outputMessage);
+
+        assertEquals(0, outputMessage.getBodyAsBytes().length);
+    }
+
+    @Test
+    void write_unsupportedElements() {
+        final MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+        assertThrows(HttpMessageNotWritableException.class, () -> converter.write(
+                List.of(TestdataGenerator.generateUserTestdataWithId()), ProtobufMessageConverter.PROTOBUF,
+                outputMessage));
+        assertEquals(0, outputMessage.getBodyAsBytes().length);
+    }
+
+    private UnknownFieldSet write(final Object object) throws IOException {
+        final MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        converter.write(object, ProtobufMessageConverter.PROTOBUF, outputMessage);
+        assertEquals(ProtobufMessageConverter.PROTOBUF, outputMessage.getHeaders().getContentType());
+        return UnknownFieldSet.parseFrom(outputMessage.getBodyAsBytes());
+    }
+}
@@ -0,0 +1,35 @@
+package hs_burgenland.weather;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.threads.virtual.enabled=true")
+class SchedulerConfigIntegrationTests {
+    @Autowired
+    private Scheduler blockingScheduler;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Test
+    void blockingScheduler_runsOnVirtualThreads() {
+        final Boolean virtual = Mono.fromCallable(() -> Thread.currentThread().isVirtual())
+                .subscribeOn(blockingScheduler)
+                .block();
+
+        assertTrue(virtual);
+    }
+
+    @Test
+    void pinningMonitor_runningInVirtualMode() {
+        assertEquals(1, applicationContext.getBeansOfType(VirtualThreadPinningMonitor.class).size());
+        assertTrue(applicationContext.getBean(VirtualThreadPinningMonitor.class).isRunning());
+    }
+}
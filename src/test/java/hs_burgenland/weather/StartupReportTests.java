@@ -0,0 +1,37 @@
+package hs_burgenland.weather;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StartupReportTests {
+    @TempDir
+    Path directory;
+
+    @Test
+    void mode_jvmAotAndCds() {
+        assertEquals("jvm", StartupReport.mode(false, List.of("-Xmx256m")));
+        assertEquals("aot", StartupReport.mode(true, List.of()));
+        assertEquals("aot+cds", StartupReport.mode(true,
+                List.of("-XX:SharedArchiveFile=application.jsa", "-Dspring.aot.enabled=true")));
+    }
+
+    @Test
+    void residentSetMegabytes_fromStatusFile() throws IOException {
+        final Path statusFile = directory.resolve("status");
+        Files.writeString(statusFile, "Name:\tjava\nVmPeak:\t 4194304 kB\nVmRSS:\t  196608 kB\nThreads:\t42\n");
+
+        assertEquals(192, StartupReport.residentSetMegabytes(statusFile));
+    }
+
+    @Test
+    void residentSetMegabytes_withoutProcfs() {
+        assertEquals(-1, StartupReport.residentSetMegabytes(directory.resolve("missing")));
+    }
+}
@@ -53,6 +53,15 @@ public class TestdataGenerator {
         return favorite;
     }
 
+    public static FavoriteSummary generateFavoriteSummaryTestdata() {
+        final Favorite favorite = generateFavoriteTestdataWithId();
+        final Location location = favorite.getLocation();
+        return new FavoriteSummary(favorite.getId(), favorite.getName(), favorite.getUser().getId(),
+                favorite.getUser().getFirstname(), favorite.getUser().getLastname(), location.getId(),
+                location.getLatitude(), location.getLongitude(), location.getElevation(), location.getName(),
+                location.getIcao());
+    }
+
     public static List<WeatherRecord> generateWeatherRecords() {
         final List<WeatherRecord> weatherRecords = new ArrayList<>();
         weatherRecords.add(new WeatherRecord(LocalDateTime.of(2025, 2, 13, 0, 0), -0.2, 90));
@@ -83,6 +92,10 @@ public class TestdataGenerator {
         return weatherRecords;
     }
 
+    public static ForecastSeries generateForecastSeries() {
+        return ForecastSeries.of(generateWeatherRecords());
+    }
+
     public static User generateDefaultUserData() {
         final User user = new User();
         user.setId(0);
@@ -0,0 +1,46 @@
+package hs_burgenland.weather;
+
+import hs_burgenland.weather.entities.FavoriteSummary;
+import hs_burgenland.weather.entities.ForecastSeries;
+import hs_burgenland.weather.entities.KeysetPage;
+import hs_burgenland.weather.entities.Location;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WeatherRuntimeHintsTests {
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @BeforeEach
+    void setUp() {
+        new WeatherRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void registerHints_jacksonBindings() throws NoSuchMethodException {
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(Location.class.getMethod("getIcao")).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(KeysetPage.class.getMethod("getNextCursor"))
+                .test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(ForecastSeries.Serializer.class).test(hints));
+    }
+
+    @Test
+    void registerHints_constructorExpression() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(FavoriteSummary.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(TypeReference.of(WeatherRuntimeHints.CACHING_PROVIDER))
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS).test(hints));
+    }
+
+    @Test
+    void registerHints_bundledResources() {
+        assertTrue(RuntimeHintsPredicates.resource().forResource("application.conf").test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("airports.csv").test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource(AotProfileGuard.RESOURCE).test(hints));
+    }
+}
@@ -2,6 +2,7 @@ package hs_burgenland.weather.controller;
 
 import hs_burgenland.weather.TestdataGenerator;
 import hs_burgenland.weather.entities.Favorite;
+import hs_burgenland.weather.entities.FavoriteSummary;
 import hs_burgenland.weather.exceptions.EntityAlreadyExistingException;
 import hs_burgenland.weather.exceptions.EntityNotFoundException;
 import hs_burgenland.weather.services.FavoriteService;
@@ -55,8 +56,8 @@ class FavoriteControllerDefaultUserTests {
 
     @Test
     void getFavoritesByUserId_defaultUser() throws EntityNotFoundException {
-        final List<Favorite> favorites = List.of(favorite, new Favorite());
-        when(favoriteService.getFavoritesByUserId(1)).thenReturn(favorites);
+        final List<FavoriteSummary> favorites = List.of(TestdataGenerator.generateFavoriteSummaryTestdata());
+        when(favoriteService.getFavoriteSummariesByUserId(1)).thenReturn(favorites);
 
         final ResponseEntity<?> response = favoriteController.getFavoritesByUserId(1);
 
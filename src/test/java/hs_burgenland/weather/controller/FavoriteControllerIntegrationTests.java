@@ -1,5 +1,7 @@
 package hs_burgenland.weather.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import hs_burgenland.weather.exceptions.EntityAlreadyExistingException;
 import hs_burgenland.weather.exceptions.EntityNotFoundException;
 import hs_burgenland.weather.services.FavoriteService;
@@ -10,11 +12,14 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -103,6 +108,7 @@ class FavoriteControllerIntegrationTests {
                         .content("{\"location\":{\"name\":\"Vienna\"},\"user\":{\"id\": 1},\"name\":\"Favorite\"}"))
                 .andExpect(status().isBadRequest())
                 .andExpect(content().string("Location with name Favorite is already a favorite location."));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM location", Integer.class));
     }
 
     @Test
@@ -133,6 +139,31 @@ class FavoriteControllerIntegrationTests {
                                 "\"longitude\":15.45,\"elevation\":363.0,\"name\":\"Graz,Austria\",\"icao\":\"LOWG\"}}]"));
     }
 
+    @Test
+    void getAllFavorites_contentNegotiation() throws Exception {
+        final ObjectMapper cborMapper = new CBORMapper();
+        final byte[] cbor = mvc.perform(get("/favorites").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals("Graz,Austria", cborMapper.readTree(cbor).get(0).get("location").get("name").asText());
+
+        mvc.perform(get("/favorites").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"));
+        // protobuf is offered for the favorites of a user, the listing shares the ResponseEntity<?> shape of /users
+        mvc.perform(get("/favorites").accept("application/x-protobuf"))
+                .andExpect(status().isNotAcceptable());
+        mvc.perform(get("/favorites").param("limit", "10").accept("application/x-protobuf"))
+                .andExpect(status().isNotAcceptable());
+        mvc.perform(get("/favorites/user/1").accept("application/x-protobuf"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-protobuf"));
+        mvc.perform(get("/favorites").accept("*/*"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/json"));
+    }
+
     @Test
     void getAllFavorites_emptyList() throws Exception {
         favoriteService.deleteFavorite(1);
@@ -161,7 +192,10 @@ class FavoriteControllerIntegrationTests {
     void getFavoritesByUserId_wrongInputNumber() throws Exception {
         mvc.perform(get("/favorites/user/0"))
                 .andExpect(status().isBadRequest())
-                .andExpect(content().string("User id must be greater than 0."));
+                .andExpect(jsonPath("$.detail").value("User id must be greater than 0."));
+        mvc.perform(get("/favorites/user/0").accept("application/x-protobuf"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON));
     }
 
     @Test
@@ -3,6 +3,8 @@ package hs_burgenland.weather.controller;
 import com.sun.jdi.InternalException;
 import hs_burgenland.weather.TestdataGenerator;
 import hs_burgenland.weather.entities.Favorite;
+import hs_burgenland.weather.entities.FavoriteSummary;
+import hs_burgenland.weather.entities.KeysetPage;
 import hs_burgenland.weather.exceptions.EntityAlreadyExistingException;
 import hs_burgenland.weather.exceptions.EntityNotFoundException;
 import hs_burgenland.weather.services.FavoriteService;
@@ -13,6 +15,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 import java.util.Objects;
@@ -131,10 +134,10 @@ class FavoriteControllerTests {
 
     @Test
     void getAllFavorites_withEntries() {
-        final List<Favorite> favorites = List.of(favorite, new Favorite());
-        when(favoriteService.getAllFavorites()).thenReturn(favorites);
+        final List<FavoriteSummary> favorites = List.of(TestdataGenerator.generateFavoriteSummaryTestdata());
+        when(favoriteService.getFavoriteSummaries(0, KeysetPage.MAX_LIMIT)).thenReturn(new KeysetPage<>(favorites, null));
 
-        final ResponseEntity<?> response = favoriteController.getAllFavorites();
+        final ResponseEntity<?> response = favoriteController.getAllFavorites(null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(favorites, response.getBody());
@@ -142,9 +145,9 @@ class FavoriteControllerTests {
 
     @Test
     void getAllFavorites_emptyList() {
-        when(favoriteService.getAllFavorites()).thenReturn(List.of());
+        when(favoriteService.getFavoriteSummaries(0, KeysetPage.MAX_LIMIT)).thenReturn(new KeysetPage<>(List.of(), null));
 
-        final ResponseEntity<?> response = favoriteController.getAllFavorites();
+        final ResponseEntity<?> response = favoriteController.getAllFavorites(null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue(((List<?>) Objects.requireNonNull(response.getBody())).isEmpty());
@@ -152,18 +155,39 @@ class FavoriteControllerTests {
 
     @Test
     void getAllFavorites_serverError() {
-        when(favoriteService.getAllFavorites()).thenThrow(new RuntimeException("Unexpected error"));
+        when(favoriteService.getFavoriteSummaries(0, KeysetPage.MAX_LIMIT)).thenThrow(new RuntimeException("Unexpected error"));
 
-        final ResponseEntity<?> response = favoriteController.getAllFavorites();
+        final ResponseEntity<?> response = favoriteController.getAllFavorites(null, null);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertEquals("Unexpected error", response.getBody());
     }
 
+    @Test
+    void getAllFavorites_page() {
+        final KeysetPage<FavoriteSummary> page = new KeysetPage<>(
+                List.of(TestdataGenerator.generateFavoriteSummaryTestdata()), 1);
+        when(favoriteService.getFavoriteSummaries(0, 1)).thenReturn(page);
+
+        final ResponseEntity<?> response = favoriteController.getAllFavorites(null, 1);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(page, response.getBody());
+        verify(favoriteService, never()).getFavoriteSummaries(0, KeysetPage.MAX_LIMIT);
+    }
+
+    @Test
+    void getAllFavorites_limitTooLarge() {
+        final ResponseEntity<?> response = favoriteController.getAllFavorites(0, KeysetPage.MAX_LIMIT + 1);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Limit must be between 1 and 1000.", response.getBody());
+    }
+
     @Test
     void getFavoritesByUserId_withEntries() throws EntityNotFoundException {
-        final List<Favorite> favorites = List.of(favorite, new Favorite());
-        when(favoriteService.getFavoritesByUserId(1)).thenReturn(favorites);
+        final List<FavoriteSummary> favorites = List.of(TestdataGenerator.generateFavoriteSummaryTestdata());
+        when(favoriteService.getFavoriteSummariesByUserId(1)).thenReturn(favorites);
 
         final ResponseEntity<?> response = favoriteController.getFavoritesByUserId(1);
 
@@ -173,7 +197,7 @@ class FavoriteControllerTests {
 
     @Test
     void getFavoritesByUserId_emptyList() throws EntityNotFoundException {
-        when(favoriteService.getFavoritesByUserId(1)).thenReturn(List.of());
+        when(favoriteService.getFavoriteSummariesByUserId(1)).thenReturn(List.of());
 
         final ResponseEntity<?> response = favoriteController.getFavoritesByUserId(1);
 
@@ -183,15 +207,16 @@ class FavoriteControllerTests {
 
     @Test
     void getFavoritesByUserId_wrongInput() {
-        final ResponseEntity<?> response = favoriteController.getFavoritesByUserId(0);
+        final ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> favoriteController.getFavoritesByUserId(0));
 
-        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        assertEquals("User id must be greater than 0.", response.getBody());
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        assertEquals("User id must be greater than 0.", exception.getReason());
     }
 
     @Test
     void getFavoritesByUserId_userNotExisting() throws EntityNotFoundException {
-        when(favoriteService.getFavoritesByUserId(99)).thenReturn(List.of());
+        when(favoriteService.getFavoriteSummariesByUserId(99)).thenReturn(List.of());
 
         final ResponseEntity<?> response = favoriteController.getFavoritesByUserId(99);
 
@@ -201,12 +226,13 @@ class FavoriteControllerTests {
 
     @Test
     void getFavoritesByUserId_serverError() throws EntityNotFoundException {
-        when(favoriteService.getFavoritesByUserId(1)).thenThrow(new RuntimeException("Unexpected error"));
+        when(favoriteService.getFavoriteSummariesByUserId(1)).thenThrow(new RuntimeException("Unexpected error"));
 
-        final ResponseEntity<?> response = favoriteController.getFavoritesByUserId(1);
+        final ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> favoriteController.getFavoritesByUserId(1));
 
-        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
-        assertEquals("Unexpected error", response.getBody());
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, exception.getStatusCode());
+        assertEquals("Unexpected error", exception.getReason());
     }
 
     @Test
@@ -74,6 +74,14 @@ class LocationControllerIntegrationTests {
                         "\"elevation\":363.0,\"name\":\"Graz,Austria\",\"icao\":\"LOWG\"}]"));
     }
 
+    @Test
+    void getAllLocations_protobufNotAcceptable() throws Exception {
+        mvc.perform(get("/locations").accept("application/x-protobuf"))
+                .andExpect(status().isNotAcceptable());
+        mvc.perform(get("/locations").param("limit", "10").accept("application/x-protobuf"))
+                .andExpect(status().isNotAcceptable());
+    }
+
     @Test
     void getAllLocations_empty() throws Exception {
         locationService.deleteLocation(1);
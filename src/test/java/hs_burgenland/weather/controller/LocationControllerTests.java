@@ -2,9 +2,11 @@ package hs_burgenland.weather.controller;
 
 import com.sun.jdi.InternalException;
 import hs_burgenland.weather.TestdataGenerator;
+import hs_burgenland.weather.entities.KeysetPage;
 import hs_burgenland.weather.entities.Location;
 import hs_burgenland.weather.exceptions.EntityAlreadyExistingException;
 import hs_burgenland.weather.exceptions.EntityNotFoundException;
+import hs_burgenland.weather.services.LocationImportService;
 import hs_burgenland.weather.services.LocationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,8 +14,13 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Objects;
 
@@ -25,6 +32,9 @@ class LocationControllerTests {
     @Mock
     private LocationService locationService;
 
+    @Mock
+    private LocationImportService locationImportService;
+
     @InjectMocks
     private LocationController locationController;
 
@@ -83,9 +93,9 @@ class LocationControllerTests {
 
     @Test
     void getAllLocations_emptyList() {
-        when(locationService.getAllLocations()).thenReturn(List.of());
+        when(locationService.getLocations(0, KeysetPage.MAX_LIMIT)).thenReturn(new KeysetPage<>(List.of(), null));
 
-        final ResponseEntity<?> response = locationController.getAllLocations();
+        final ResponseEntity<?> response = locationController.getAllLocations(null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue(((List<?>) Objects.requireNonNull(response.getBody())).isEmpty());
@@ -94,9 +104,9 @@ class LocationControllerTests {
     @Test
     void getAllLocations_withEntries() {
         final List<Location> locations = List.of(location, new Location());
-        when(locationService.getAllLocations()).thenReturn(locations);
+        when(locationService.getLocations(0, KeysetPage.MAX_LIMIT)).thenReturn(new KeysetPage<>(locations, null));
 
-        final ResponseEntity<?> response = locationController.getAllLocations();
+        final ResponseEntity<?> response = locationController.getAllLocations(null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(locations, response.getBody());
@@ -104,9 +114,9 @@ class LocationControllerTests {
 
     @Test
     void getAllLocations_serverError() {
-        when(locationService.getAllLocations()).thenThrow(new RuntimeException("Unexpected error"));
+        when(locationService.getLocations(0, KeysetPage.MAX_LIMIT)).thenThrow(new RuntimeException("Unexpected error"));
 
-        final ResponseEntity<?> response = locationController.getAllLocations();
+        final ResponseEntity<?> response = locationController.getAllLocations(null, null);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertEquals("Unexpected error", response.getBody());
@@ -185,4 +195,25 @@ class LocationControllerTests {
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertEquals("Unexpected error", response.getBody());
     }
+
+    @Test
+    void importLocations_writesToResponse() throws IOException {
+        final InputStream body = new ByteArrayInputStream("\"Vienna\"\n".getBytes());
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        locationController.importLocations("application/x-ndjson", body, response);
+
+        assertEquals(MediaType.APPLICATION_NDJSON_VALUE, response.getContentType());
+        verify(locationImportService).importLocations(body, true, response.getOutputStream());
+    }
+
+    @Test
+    void importLocations_csv() throws IOException {
+        final InputStream body = new ByteArrayInputStream("Vienna\n".getBytes());
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        locationController.importLocations("text/csv;charset=UTF-8", body, response);
+
+        verify(locationImportService).importLocations(body, false, response.getOutputStream());
+    }
 }
@@ -8,11 +8,15 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.servlet.MockMvc;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -86,6 +90,45 @@ class UserControllerIntegrationTests {
                         "{\"id\":3,\"firstname\":\"Max\",\"lastname\":\"Muster\"}]"));
     }
 
+    @Test
+    void getAllUsers_unpagedListingCapped() throws Exception {
+        jdbcTemplate.update("INSERT INTO users (firstname, lastname) SELECT 'User' || x, 'Doe' FROM SYSTEM_RANGE(1, 1000)");
+
+        mvc.perform(get("/users"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Deprecation", "true"))
+                .andExpect(header().string("Link", "<http://localhost/users?after=1000&limit=1000>; rel=\"next\""))
+                .andExpect(jsonPath("$.length()").value(1000));
+    }
+
+    @Test
+    void getAllUsers_keysetPages() throws Exception {
+        userService.createUser("John", "Doe");
+        userService.createUser("Max", "Muster");
+
+        mvc.perform(get("/users").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"items\":[{\"id\":1},{\"id\":2}],\"nextCursor\":2}"));
+        mvc.perform(get("/users").param("after", "2").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"items\":[{\"id\":3,\"firstname\":\"Max\"}],\"nextCursor\":null}"));
+    }
+
+    @Test
+    void getAllUsers_limitTooLarge() throws Exception {
+        mvc.perform(get("/users").param("limit", "1001"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Limit must be between 1 and 1000."));
+    }
+
+    @Test
+    void getAllUsers_protobufNotAcceptable() throws Exception {
+        mvc.perform(get("/users").accept("application/x-protobuf"))
+                .andExpect(status().isNotAcceptable());
+        mvc.perform(get("/users").param("limit", "10").accept("application/x-protobuf"))
+                .andExpect(status().isNotAcceptable());
+    }
+
     @Test
     void getAllUsers_emptyList() throws Exception {
         jdbcTemplate.update("DELETE FROM users WHERE id = 1");
@@ -137,6 +180,18 @@ class UserControllerIntegrationTests {
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    void exportUsers_ndjson() throws Exception {
+        userService.createUser("Max", "Muster");
+
+        mvc.perform(get("/users/export"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":1,\"firstname\":\"Jane\",\"lastname\":\"Doe\"}\n"
+                        + "{\"id\":2,\"firstname\":\"Max\",\"lastname\":\"Muster\"}\n"));
+    }
+
     @Test
     void deleteUser_notExisting() throws Exception {
         mvc.perform(delete("/users/99"))
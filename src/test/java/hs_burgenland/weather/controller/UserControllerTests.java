@@ -1,6 +1,7 @@
 package hs_burgenland.weather.controller;
 
 import hs_burgenland.weather.TestdataGenerator;
+import hs_burgenland.weather.entities.KeysetPage;
 import hs_burgenland.weather.entities.User;
 import hs_burgenland.weather.exceptions.EntityAlreadyExistingException;
 import hs_burgenland.weather.exceptions.EntityNotFoundException;
@@ -10,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -80,9 +82,9 @@ class UserControllerTests {
 
     @Test
     void getAllUsers_emptyList() {
-        when(userService.getAllUsers()).thenReturn(List.of());
+        when(userService.getUsers(0, KeysetPage.MAX_LIMIT)).thenReturn(new KeysetPage<>(List.of(), null));
 
-        final ResponseEntity<?> response = userController.getAllUsers();
+        final ResponseEntity<?> response = userController.getAllUsers(null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue(((List<?>) Objects.requireNonNull(response.getBody())).isEmpty());
@@ -91,24 +93,64 @@ class UserControllerTests {
     @Test
     void getAllUsers_withEntries() {
         final List<User> users = List.of(user, new User());
-        when(userService.getAllUsers()).thenReturn(users);
+        when(userService.getUsers(0, KeysetPage.MAX_LIMIT)).thenReturn(new KeysetPage<>(users, null));
 
-        final ResponseEntity<?> response = userController.getAllUsers();
+        final ResponseEntity<?> response = userController.getAllUsers(null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(users, response.getBody());
+        assertEquals("true", response.getHeaders().getFirst("Deprecation"));
+        assertNull(response.getHeaders().getFirst(HttpHeaders.LINK));
     }
 
     @Test
     void getAllUsers_serverError() {
-        when(userService.getAllUsers()).thenThrow(new RuntimeException("Unexpected error"));
+        when(userService.getUsers(0, KeysetPage.MAX_LIMIT)).thenThrow(new RuntimeException("Unexpected error"));
 
-        final ResponseEntity<?> response = userController.getAllUsers();
+        final ResponseEntity<?> response = userController.getAllUsers(null, null);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertEquals("Unexpected error", response.getBody());
     }
 
+    @Test
+    void getAllUsers_page() {
+        final KeysetPage<User> page = new KeysetPage<>(List.of(user), 1);
+        when(userService.getUsers(0, 1)).thenReturn(page);
+
+        final ResponseEntity<?> response = userController.getAllUsers(null, 1);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(page, response.getBody());
+        verify(userService, never()).getUsers(0, KeysetPage.MAX_LIMIT);
+    }
+
+    @Test
+    void getAllUsers_pageWithDefaultLimit() {
+        when(userService.getUsers(5, KeysetPage.DEFAULT_LIMIT)).thenReturn(new KeysetPage<>(List.of(), null));
+
+        final ResponseEntity<?> response = userController.getAllUsers(5, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(userService, times(1)).getUsers(5, KeysetPage.DEFAULT_LIMIT);
+    }
+
+    @Test
+    void getAllUsers_limitTooLarge() {
+        final ResponseEntity<?> response = userController.getAllUsers(0, KeysetPage.MAX_LIMIT + 1);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Limit must be between 1 and 1000.", response.getBody());
+    }
+
+    @Test
+    void getAllUsers_negativeCursor() {
+        final ResponseEntity<?> response = userController.getAllUsers(-1, 10);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Cursor must not be negative.", response.getBody());
+    }
+
     @Test
     void getUserById_foundEntry() throws EntityNotFoundException {
         when(userService.getUserById(1)).thenReturn(user);
@@ -12,9 +12,12 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -50,15 +53,23 @@ class WeatherForecastControllerIntegrationTests {
 
     @Test
     void getWeatherForecastAtFavoriteLocation_favoriteNotExisting() throws Exception {
-        mvc.perform(get("/weather/99")
+        final MvcResult result = mvc.perform(get("/weather/99")
                         .contentType("application/json"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
                 .andExpect(status().isNotFound());
     }
 
     @Test
     void getWeatherForecastAtFavoriteLocation_wrongIput() throws Exception {
-        mvc.perform(get("/weather/0")
+        final MvcResult result = mvc.perform(get("/weather/0")
                         .contentType("application/json"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
                 .andExpect(status().isBadRequest())
                 .andExpect(content().string("Favorite id must be greater than 0."));
     }
@@ -2,32 +2,46 @@ package hs_burgenland.weather.controller;
 
 import hs_burgenland.weather.TestdataGenerator;
 import hs_burgenland.weather.entities.Favorite;
-import hs_burgenland.weather.entities.WeatherRecord;
+import hs_burgenland.weather.entities.FavoriteForecast;
+import hs_burgenland.weather.entities.ForecastSeries;
 import hs_burgenland.weather.exceptions.EntityNotFoundException;
 import hs_burgenland.weather.services.FavoriteService;
+import hs_burgenland.weather.services.ForecastCache;
 import hs_burgenland.weather.services.WeatherForecastService;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import org.apache.logging.log4j.util.InternalException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
-import java.util.ArrayList;
+import java.time.Duration;
 import java.util.List;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class WeatherForecastControllerTests {
+    private static final long MODEL_RUN_MILLIS = 1_739_441_700_000L;
+
     @Mock
     WeatherForecastService weatherForecastService;
 
     @Mock
     FavoriteService favoriteService;
 
+    @Mock
+    ForecastCache forecastCache;
+
     @InjectMocks
     WeatherForecastController weatherForecastController;
 
@@ -36,22 +50,136 @@ class WeatherForecastControllerTests {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(weatherForecastController, "blockingScheduler", Schedulers.immediate());
 
         favorite = TestdataGenerator.generateFavoriteTestdataWithId();
+        when(forecastCache.timeToSupersede(any())).thenReturn(Duration.ofMinutes(40));
     }
 
     @Test
     void getWeatherForecastAtFavoriteLocation_Success() throws EntityNotFoundException {
-        final List<WeatherRecord> weatherRecords = new ArrayList<>();
+        final ForecastSeries forecastSeries = TestdataGenerator.generateForecastSeries();
         when(favoriteService.getFavoriteById(1)).thenReturn(favorite);
-        when(weatherForecastService.getWeatherForecast(favorite)).thenReturn(weatherRecords);
+        when(weatherForecastService.getWeatherForecastReactive(favorite)).thenReturn(Mono.just(forecastSeries));
 
-        final ResponseEntity<?> response = weatherForecastController.getWeatherForecastAtFavoriteLocation(1);
+        final ResponseEntity<?> response = weatherForecastController.getWeatherForecastAtFavoriteLocation(1, null).block();
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(weatherRecords, response.getBody());
+        assertEquals(forecastSeries, response.getBody());
         verify(favoriteService, times(1)).getFavoriteById(1);
-        verify(weatherForecastService, times(1)).getWeatherForecast(favorite);
+        verify(weatherForecastService, times(1)).getWeatherForecastReactive(favorite);
+    }
+
+    @Test
+    void getWeatherForecastAtFavoriteLocation_staleForecastMarked() throws EntityNotFoundException {
+        final ForecastSeries forecastSeries = TestdataGenerator.generateForecastSeries().asStale();
+        when(favoriteService.getFavoriteById(1)).thenReturn(favorite);
+        when(weatherForecastService.getWeatherForecastReactive(favorite)).thenReturn(Mono.just(forecastSeries));
+
+        final ResponseEntity<?> response = weatherForecastController.getWeatherForecastAtFavoriteLocation(1, null).block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("true", response.getHeaders().getFirst(WeatherForecastController.STALE_HEADER));
+        assertEquals(forecastSeries, response.getBody());
+    }
+
+    @Test
+    void getWeatherForecastAtFavoriteLocation_etagAndCacheControl() throws EntityNotFoundException {
+        final ForecastSeries forecastSeries = TestdataGenerator.generateForecastSeries().withModelRun(MODEL_RUN_MILLIS);
+        when(favoriteService.getFavoriteById(1)).thenReturn(favorite);
+        when(weatherForecastService.getWeatherForecastReactive(favorite)).thenReturn(Mono.just(forecastSeries));
+
+        final ResponseEntity<?> response = weatherForecastController.getWeatherForecastAtFavoriteLocation(1, null).block();
+
+        assertEquals(WeatherForecastController.etag(forecastSeries), response.getHeaders().getETag());
+        assertEquals("max-age=2400, public", response.getHeaders().getCacheControl());
+        assertTrue(response.getHeaders().getETag().startsWith("W/"));
+        assertEquals(List.of(HttpHeaders.ACCEPT), response.getHeaders().getVary());
+    }
+
+    @Test
+    void getWeatherForecastAtFavoriteLocation_notModified() throws EntityNotFoundException {
+        final ForecastSeries forecastSeries = TestdataGenerator.generateForecastSeries().withModelRun(MODEL_RUN_MILLIS);
+        when(favoriteService.getFavoriteById(1)).thenReturn(favorite);
+        when(weatherForecastService.getWeatherForecastReactive(favorite)).thenReturn(Mono.just(forecastSeries));
+        final String etag = WeatherForecastController.etag(forecastSeries);
+
+        final ResponseEntity<?> response = weatherForecastController
+                .getWeatherForecastAtFavoriteLocation(1, "\"other\", " + etag).block();
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals(etag, response.getHeaders().getETag());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void getWeatherForecastAtFavoriteLocation_modifiedAfterModelRun() throws EntityNotFoundException {
+        final ForecastSeries forecastSeries = TestdataGenerator.generateForecastSeries().withModelRun(MODEL_RUN_MILLIS);
+        when(favoriteService.getFavoriteById(1)).thenReturn(favorite);
+        when(weatherForecastService.getWeatherForecastReactive(favorite)).thenReturn(Mono.just(forecastSeries));
+        final String previousEtag = WeatherForecastController.etag(
+                TestdataGenerator.generateForecastSeries().withModelRun(MODEL_RUN_MILLIS - 3_600_000));
+
+        final ResponseEntity<?> response = weatherForecastController
+                .getWeatherForecastAtFavoriteLocation(1, previousEtag).block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(forecastSeries, response.getBody());
+    }
+
+    @Test
+    void getWeatherForecastAtFavoriteLocation_staleForecastNotCached() throws EntityNotFoundException {
+        final ForecastSeries forecastSeries = TestdataGenerator.generateForecastSeries().asStale();
+        when(favoriteService.getFavoriteById(1)).thenReturn(favorite);
+        when(weatherForecastService.getWeatherForecastReactive(favorite)).thenReturn(Mono.just(forecastSeries));
+
+        final ResponseEntity<?> response = weatherForecastController.getWeatherForecastAtFavoriteLocation(1, null).block();
+
+        assertEquals("no-cache", response.getHeaders().getCacheControl());
+        assertNotEquals(WeatherForecastController.etag(forecastSeries.asStale()),
+                WeatherForecastController.etag(TestdataGenerator.generateForecastSeries()));
+    }
+
+    // read within the refresh grace: the forecast of the previous model run must not be cached as current
+    @Test
+    void getWeatherForecastAtFavoriteLocation_supersededForecastNotCached() throws EntityNotFoundException {
+        final ForecastSeries forecastSeries = TestdataGenerator.generateForecastSeries().withModelRun(MODEL_RUN_MILLIS);
+        when(favoriteService.getFavoriteById(1)).thenReturn(favorite);
+        when(weatherForecastService.getWeatherForecastReactive(favorite)).thenReturn(Mono.just(forecastSeries));
+        when(forecastCache.timeToSupersede(forecastSeries)).thenReturn(Duration.ZERO);
+
+        final ResponseEntity<?> response = weatherForecastController.getWeatherForecastAtFavoriteLocation(1, null).block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("no-cache", response.getHeaders().getCacheControl());
+        assertTrue(response.getHeaders().getETag().endsWith(
+                Long.toHexString(MODEL_RUN_MILLIS / 1000) + "\""));
+    }
+
+    @Test
+    void matchesEtag_wildcardAndList() {
+        assertTrue(WeatherForecastController.matchesEtag("*", "\"a\""));
+        assertTrue(WeatherForecastController.matchesEtag("\"b\", \"a\"", "\"a\""));
+        assertFalse(WeatherForecastController.matchesEtag("\"b\"", "\"a\""));
+        assertFalse(WeatherForecastController.matchesEtag(null, "\"a\""));
+    }
+
+    @Test
+    void matchesEtag_weakComparison() {
+        assertTrue(WeatherForecastController.matchesEtag("\"a\"", "W/\"a\""));
+        assertTrue(WeatherForecastController.matchesEtag("W/\"a\"", "\"a\""));
+        assertFalse(WeatherForecastController.matchesEtag("W/\"b\"", "W/\"a\""));
+    }
+
+    @Test
+    void getWeatherForecastAtFavoriteLocation_circuitBreakerOpen() throws EntityNotFoundException {
+        when(favoriteService.getFavoriteById(1)).thenReturn(favorite);
+        when(weatherForecastService.getWeatherForecastReactive(favorite)).thenReturn(Mono.error(
+                CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("open-meteo"))));
+
+        final ResponseEntity<?> response = weatherForecastController.getWeatherForecastAtFavoriteLocation(1, null).block();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
     }
 
     @Test
@@ -59,7 +187,7 @@ class WeatherForecastControllerTests {
         when(favoriteService.getFavoriteById(1))
                 .thenThrow(new EntityNotFoundException("Favorite with id 1 not found."));
 
-        final ResponseEntity<?> response = weatherForecastController.getWeatherForecastAtFavoriteLocation(1);
+        final ResponseEntity<?> response = weatherForecastController.getWeatherForecastAtFavoriteLocation(1, null).block();
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         verify(favoriteService, times(1)).getFavoriteById(1);
@@ -67,7 +195,7 @@ class WeatherForecastControllerTests {
 
     @Test
     void getWeatherForecastAtFavoriteLocation_WrongInput() {
-        final ResponseEntity<?> response = weatherForecastController.getWeatherForecastAtFavoriteLocation(0);
+        final ResponseEntity<?> response = weatherForecastController.getWeatherForecastAtFavoriteLocation(0, null).block();
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertEquals("Favorite id must be greater than 0.", response.getBody());
@@ -76,14 +204,14 @@ class WeatherForecastControllerTests {
     @Test
     void getWeatherForecastAtFavoriteLocation_notExistingLocation() throws EntityNotFoundException {
         when(favoriteService.getFavoriteById(1)).thenReturn(favorite);
-        when(weatherForecastService.getWeatherForecast(favorite))
-                .thenThrow(new EntityNotFoundException("Location with id 1 not found."));
+        when(weatherForecastService.getWeatherForecastReactive(favorite))
+                .thenReturn(Mono.error(new EntityNotFoundException("Location with id 1 not found.")));
 
-        final ResponseEntity<?> response = weatherForecastController.getWeatherForecastAtFavoriteLocation(1);
+        final ResponseEntity<?> response = weatherForecastController.getWeatherForecastAtFavoriteLocation(1, null).block();
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         verify(favoriteService, times(1)).getFavoriteById(1);
-        verify(weatherForecastService, times(1)).getWeatherForecast(favorite);
+        verify(weatherForecastService, times(1)).getWeatherForecastReactive(favorite);
     }
 
     @Test
@@ -91,7 +219,7 @@ class WeatherForecastControllerTests {
         favorite.setLocation(null);
         when(favoriteService.getFavoriteById(1)).thenReturn(favorite);
 
-        final ResponseEntity<?> response = weatherForecastController.getWeatherForecastAtFavoriteLocation(1);
+        final ResponseEntity<?> response = weatherForecastController.getWeatherForecastAtFavoriteLocation(1, null).block();
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertEquals("Location id must be greater than 0.", response.getBody());
@@ -103,7 +231,7 @@ class WeatherForecastControllerTests {
         favorite.getLocation().setId(-1);
         when(favoriteService.getFavoriteById(1)).thenReturn(favorite);
 
-        final ResponseEntity<?> response = weatherForecastController.getWeatherForecastAtFavoriteLocation(1);
+        final ResponseEntity<?> response = weatherForecastController.getWeatherForecastAtFavoriteLocation(1, null).block();
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertEquals("Location id must be greater than 0.", response.getBody());
@@ -113,14 +241,65 @@ class WeatherForecastControllerTests {
     @Test
     void getWeatherForecastAtFavoriteLocation_openmeteoError() throws EntityNotFoundException {
         when(favoriteService.getFavoriteById(1)).thenReturn(favorite);
-        when(weatherForecastService.getWeatherForecast(favorite))
-                .thenThrow(new InternalException("Error while processing weather data."));
+        when(weatherForecastService.getWeatherForecastReactive(favorite))
+                .thenReturn(Mono.error(new InternalException("Error while processing weather data.")));
 
-        final ResponseEntity<?> response = weatherForecastController.getWeatherForecastAtFavoriteLocation(1);
+        final ResponseEntity<?> response = weatherForecastController.getWeatherForecastAtFavoriteLocation(1, null).block();
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertEquals("Error while processing weather data.", response.getBody());
         verify(favoriteService, times(1)).getFavoriteById(1);
-        verify(weatherForecastService, times(1)).getWeatherForecast(favorite);
+        verify(weatherForecastService, times(1)).getWeatherForecastReactive(favorite);
+    }
+
+    @Test
+    void getWeatherForecastsOfUser_Success() throws EntityNotFoundException {
+        final List<Favorite> favorites = List.of(favorite);
+        final List<FavoriteForecast> forecasts =
+                List.of(new FavoriteForecast(1, "Home", TestdataGenerator.generateForecastSeries()));
+        when(favoriteService.getFavoritesByUserId(2)).thenReturn(favorites);
+        when(weatherForecastService.getWeatherForecasts(favorites)).thenReturn(forecasts);
+
+        final ResponseEntity<?> response = weatherForecastController.getWeatherForecastsOfUser(2);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("false", response.getHeaders().getFirst(WeatherForecastController.STALE_HEADER));
+        assertEquals(forecasts, response.getBody());
+        verify(favoriteService, times(1)).getFavoritesByUserId(2);
+        verify(weatherForecastService, times(1)).getWeatherForecasts(favorites);
+    }
+
+    @Test
+    void getWeatherForecastsOfUser_WrongInput() {
+        final ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> weatherForecastController.getWeatherForecastsOfUser(0));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        assertEquals("User id must be greater than 0.", exception.getReason());
+    }
+
+    @Test
+    void getWeatherForecastsOfUser_notExistingUser() throws EntityNotFoundException {
+        when(favoriteService.getFavoritesByUserId(99))
+                .thenThrow(new EntityNotFoundException("User with id 99 not found."));
+
+        final ResponseEntity<?> response = weatherForecastController.getWeatherForecastsOfUser(99);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        verify(weatherForecastService, never()).getWeatherForecasts(any());
+    }
+
+    @Test
+    void getWeatherForecastsOfUser_openmeteoError() throws EntityNotFoundException {
+        final List<Favorite> favorites = List.of(favorite);
+        when(favoriteService.getFavoritesByUserId(2)).thenReturn(favorites);
+        when(weatherForecastService.getWeatherForecasts(favorites))
+                .thenThrow(new InternalException("Error while processing weather data."));
+
+        final ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> weatherForecastController.getWeatherForecastsOfUser(2));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, exception.getStatusCode());
+        assertEquals("Error while processing weather data.", exception.getReason());
     }
 }
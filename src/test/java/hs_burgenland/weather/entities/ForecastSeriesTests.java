@@ -0,0 +1,87 @@
+package hs_burgenland.weather.entities;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hs_burgenland.weather.TestdataGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ForecastSeriesTests {
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    void of_sameRecordsAsList() {
+        final List<WeatherRecord> weatherRecords = TestdataGenerator.generateWeatherRecords();
+        final ForecastSeries forecastSeries = ForecastSeries.of(weatherRecords);
+
+        assertEquals(weatherRecords, forecastSeries);
+        assertEquals(3600, forecastSeries.getStepSeconds());
+        assertEquals(-0.2, forecastSeries.getFirst().getTemperature());
+    }
+
+    @Test
+    void of_unevenRecords() {
+        final List<WeatherRecord> weatherRecords = List.of(
+                new WeatherRecord(LocalDateTime.of(2025, 2, 13, 0, 0), -0.2, 90),
+                new WeatherRecord(LocalDateTime.of(2025, 2, 13, 1, 0), -0.1, 91),
+                new WeatherRecord(LocalDateTime.of(2025, 2, 13, 3, 0), 0.0, 90));
+
+        assertThrows(IllegalArgumentException.class, () -> ForecastSeries.of(weatherRecords));
+    }
+
+    @Test
+    void serialize_sameJsonAsWeatherRecords() throws JsonProcessingException {
+        final List<WeatherRecord> weatherRecords = TestdataGenerator.generateWeatherRecords();
+
+        assertEquals(objectMapper.writeValueAsString(weatherRecords),
+                objectMapper.writeValueAsString(ForecastSeries.of(weatherRecords)));
+    }
+
+    @Test
+    void serialize_empty() throws JsonProcessingException {
+        assertEquals("[]", objectMapper.writeValueAsString(ForecastSeries.empty()));
+    }
+
+    @Test
+    void asStale_sameRecords() {
+        final ForecastSeries forecastSeries = TestdataGenerator.generateForecastSeries();
+        final ForecastSeries staleForecastSeries = forecastSeries.asStale();
+
+        assertTrue(staleForecastSeries.isStale());
+        assertFalse(forecastSeries.isStale());
+        assertEquals(forecastSeries, staleForecastSeries);
+    }
+
+    @Test
+    void withModelRun_keptWhenStale() {
+        final ForecastSeries forecastSeries = TestdataGenerator.generateForecastSeries().withModelRun(1_000L);
+
+        assertEquals(1_000L, forecastSeries.asStale().getModelRunMillis());
+        assertEquals(0, TestdataGenerator.generateForecastSeries().getModelRunMillis());
+        assertEquals(TestdataGenerator.generateForecastSeries(), forecastSeries);
+    }
+
+    @Test
+    void contentHash_equalForEqualContent() {
+        assertEquals(TestdataGenerator.generateForecastSeries().contentHash(),
+                ForecastSeries.of(List.copyOf(TestdataGenerator.generateWeatherRecords())).contentHash());
+    }
+
+    @Test
+    void contentHash_changesWithValue() {
+        final List<WeatherRecord> weatherRecords = TestdataGenerator.generateWeatherRecords();
+        weatherRecords.set(5, new WeatherRecord(weatherRecords.get(5).getTime(), 0.2, 93));
+
+        assertNotEquals(TestdataGenerator.generateForecastSeries().contentHash(),
+                ForecastSeries.of(weatherRecords).contentHash());
+    }
+}
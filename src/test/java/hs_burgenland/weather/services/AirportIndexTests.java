@@ -0,0 +1,96 @@
+package hs_burgenland.weather.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AirportIndexTests {
+    private static final String DATASET = """
+            # coverage: 46,9,49.5,17
+            LOWW,48.110298,16.5697
+            LOWG,46.991100,15.439600
+            """;
+
+    private final AirportIndex airportIndex = new AirportIndex();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(airportIndex, "maxDistanceKm", 100.0);
+    }
+
+    @Test
+    void findNearestIcao_notLoaded() {
+        assertTrue(airportIndex.findNearestIcao(48.208_49, 16.372_08).isEmpty());
+    }
+
+    private void load(final String content) {
+        ReflectionTestUtils.setField(airportIndex, "dataset",
+                new ByteArrayResource(content.getBytes(StandardCharsets.UTF_8)));
+        airportIndex.reloadIfModified();
+    }
+
+    @Test
+    void findNearestIcao_withinCoverage() {
+        load(DATASET);
+
+        assertEquals(Optional.of("LOWW"), airportIndex.findNearestIcao(48.208_49, 16.372_08));
+        assertEquals(Optional.of("LOWG"), airportIndex.findNearestIcao(47.070_78, 15.439_54));
+    }
+
+    @Test
+    void findNearestIcao_closerStationMayExistOutsideCoverage() {
+        load(DATASET);
+
+        // LOWW is about 25 km away, the eastern boundary of the coverage only about 7 km
+        assertTrue(airportIndex.findNearestIcao(48.15, 16.9).isEmpty());
+    }
+
+    @Test
+    void findNearestIcao_outsideCoverage() {
+        load(DATASET);
+
+        assertTrue(airportIndex.findNearestIcao(48.353_8, 17.5).isEmpty());
+        assertTrue(airportIndex.findNearestIcao(-33.868_82, 151.209_29).isEmpty());
+    }
+
+    @Test
+    void findNearestIcao_tooFarAway() {
+        load("# coverage: -90,-180,90,180\nLOWW,48.110298,16.5697\n");
+
+        assertTrue(airportIndex.findNearestIcao(-33.868_82, 151.209_29).isEmpty());
+    }
+
+    @Test
+    void findNearestIcao_bundledDatasetWithoutCoverage() {
+        ReflectionTestUtils.setField(airportIndex, "dataset", new ClassPathResource("airports.csv"));
+        airportIndex.reloadIfModified();
+
+        assertTrue(airportIndex.findNearestIcao(48.208_49, 16.372_08).isEmpty());
+    }
+
+    @Test
+    void reloadIfModified_brokenDatasetKeepsPreviousIndex(@TempDir final Path directory) throws IOException {
+        final Path file = Files.writeString(directory.resolve("airports.csv"), DATASET);
+        ReflectionTestUtils.setField(airportIndex, "dataset", new FileSystemResource(file));
+        airportIndex.reloadIfModified();
+
+        ReflectionTestUtils.setField(airportIndex, "dataset",
+                new ByteArrayResource("LOWW,not-a-number,16.5697".getBytes(StandardCharsets.UTF_8)));
+        airportIndex.reloadIfModified();
+
+        assertEquals(Optional.of("LOWW"), airportIndex.findNearestIcao(48.208_49, 16.372_08));
+    }
+}
@@ -0,0 +1,213 @@
+package hs_burgenland.weather.services;
+
+import com.sun.net.httpserver.HttpServer;
+import hs_burgenland.weather.TestdataGenerator;
+import hs_burgenland.weather.UpstreamClientConfig;
+import hs_burgenland.weather.UpstreamClientProperties;
+import hs_burgenland.weather.entities.Location;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApiRequestServiceTests {
+    private final AtomicReference<String> requestedUri = new AtomicReference<>();
+    private final AtomicReference<String> acceptEncoding = new AtomicReference<>();
+    private final AtomicInteger errorResponses = new AtomicInteger();
+    private final CountDownLatch releaseSlowRequest = new CountDownLatch(1);
+    private final CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+    private final ApiRequestService apiRequestService = new ApiRequestService();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            requestedUri.set(exchange.getRequestURI().toString());
+            acceptEncoding.set(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+            final byte[] body = gzip("{\"results\":[]}");
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        server.createContext("/unavailable", exchange -> {
+            errorResponses.incrementAndGet();
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                releaseSlowRequest.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        Metrics.addRegistry(meterRegistry);
+
+        final String baseUrl = "http://localhost:" + server.getAddress().getPort();
+        final UpstreamClientProperties properties = new UpstreamClientProperties();
+        properties.getGeocoding().setResponseTimeout(Duration.ofSeconds(2));
+        properties.getGeocoding().setRetryBackoff(Duration.ofMillis(1));
+        properties.getGeocoding().setMaxConcurrentCalls(1);
+        final WebClient webClient = UpstreamClientConfig.createWebClient(WebClient.builder(), "test",
+                properties.getGeocoding(), properties);
+
+        ReflectionTestUtils.setField(apiRequestService, "geocodingUrl", baseUrl + "/v1/search");
+        ReflectionTestUtils.setField(apiRequestService, "avwxUrl", baseUrl + "/api/station/near/");
+        ReflectionTestUtils.setField(apiRequestService, "avwxToken", "secret");
+        ReflectionTestUtils.setField(apiRequestService, "openmeteo", baseUrl + "/v1/forecast");
+        ReflectionTestUtils.setField(apiRequestService, "geocodingWebClient", webClient);
+        ReflectionTestUtils.setField(apiRequestService, "avwxWebClient", webClient);
+        ReflectionTestUtils.setField(apiRequestService, "openMeteoWebClient", webClient);
+        ReflectionTestUtils.setField(apiRequestService, "upstreamClientProperties", properties);
+        ReflectionTestUtils.setField(apiRequestService, "circuitBreakerRegistry", circuitBreakerRegistry);
+        ReflectionTestUtils.setField(apiRequestService, "bulkheadRegistry", BulkheadRegistry.ofDefaults());
+        apiRequestService.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseSlowRequest.countDown();
+        server.stop(0);
+        Metrics.removeRegistry(meterRegistry);
+    }
+
+    private static byte[] gzip(final String content) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+            gzipOutputStream.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return outputStream.toByteArray();
+    }
+
+    @Test
+    void retrieveLocationData_compressedResponse() {
+        final Location location = new Location();
+        location.setName("Sankt Pölten");
+
+        assertEquals("{\"results\":[]}", apiRequestService.retrieveLocationData(location));
+        assertTrue(acceptEncoding.get().contains("gzip"));
+        assertEquals("/v1/search?name=Sankt%20P%C3%B6lten&count=1", requestedUri.get());
+        assertEquals(1, meterRegistry.get(ApiRequestService.UPSTREAM_TIMER)
+                .tags("upstream", "geocoding", "operation", "retrieveLocationData", "status", "200")
+                .timer().count());
+    }
+
+    @Test
+    void retrieveLocationData_errorStatusRetriedAndTimed() {
+        useGeocodingPath("/unavailable");
+        final Location location = TestdataGenerator.generateLocationTestdataWithId();
+
+        assertThrows(WebClientResponseException.ServiceUnavailable.class,
+                () -> apiRequestService.retrieveLocationData(location));
+        assertEquals(3, errorResponses.get());
+        assertEquals(3, meterRegistry.get(ApiRequestService.UPSTREAM_TIMER)
+                .tags("upstream", "geocoding", "status", "503")
+                .timer().count());
+    }
+
+    @Test
+    void retrieveLocationData_clientErrorNotRetried() {
+        useGeocodingPath("/missing");
+        server.createContext("/missing", exchange -> {
+            errorResponses.incrementAndGet();
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        final Location location = TestdataGenerator.generateLocationTestdataWithId();
+
+        assertThrows(WebClientResponseException.NotFound.class, () -> apiRequestService.retrieveLocationData(location));
+        assertEquals(1, errorResponses.get());
+    }
+
+    @Test
+    void retrieveLocationData_circuitBreakerOpen() {
+        circuitBreakerRegistry.circuitBreaker("geocoding").transitionToOpenState();
+        final Location location = TestdataGenerator.generateLocationTestdataWithId();
+
+        assertThrows(CallNotPermittedException.class, () -> apiRequestService.retrieveLocationData(location));
+        assertNull(requestedUri.get());
+    }
+
+    @Test
+    void retrieveLocationData_circuitBreakerOpensAfterFailures() {
+        useGeocodingPath("/unavailable");
+        final Location location = TestdataGenerator.generateLocationTestdataWithId();
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(RuntimeException.class, () -> apiRequestService.retrieveLocationData(location));
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN,
+                circuitBreakerRegistry.circuitBreaker("geocoding").getState());
+        assertEquals(10, errorResponses.get());
+    }
+
+    @Test
+    void retrieveLocationData_bulkheadFull() {
+        useGeocodingPath("/slow");
+        final Location location = TestdataGenerator.generateLocationTestdataWithId();
+
+        apiRequestService.retrieveLocationDataReactive(location).subscribe(unused -> { }, error -> { });
+
+        assertThrows(BulkheadFullException.class, () -> apiRequestService.retrieveLocationData(location));
+    }
+
+    private void useGeocodingPath(final String path) {
+        ReflectionTestUtils.setField(apiRequestService, "geocodingUrl",
+                "http://localhost:" + server.getAddress().getPort() + path);
+        apiRequestService.initialize();
+    }
+
+    @Test
+    void retrieveAirportData_uri() {
+        apiRequestService.retrieveAirportData(TestdataGenerator.generateLocationTestdataWithId());
+
+        assertEquals("/api/station/near/48.20849,16.37208?n=1&token=secret", requestedUri.get());
+    }
+
+    @Test
+    void retrieveWeatherForecasts_uri() {
+        final Location graz = TestdataGenerator.generateLocationTestdataWithId();
+        graz.setLatitude(47.066_67);
+        graz.setLongitude(15.45);
+
+        apiRequestService.retrieveWeatherForecasts(List.of(TestdataGenerator.generateLocationTestdataWithId(), graz));
+
+        assertEquals("/v1/forecast?latitude=48.20849,47.06667&longitude=16.37208,15.45"
+                + "&hourly=temperature_2m&hourly=relative_humidity_2m&forecast_days=1", requestedUri.get());
+    }
+}
@@ -0,0 +1,116 @@
+package hs_burgenland.weather.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hs_burgenland.weather.TestdataGenerator;
+import hs_burgenland.weather.entities.Favorite;
+import hs_burgenland.weather.entities.User;
+import hs_burgenland.weather.repositories.FavoriteRepository;
+import hs_burgenland.weather.repositories.LocationRepository;
+import hs_burgenland.weather.repositories.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ExportServiceTests {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private LocationRepository locationRepository;
+
+    @Mock
+    private FavoriteRepository favoriteRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private ExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(exportService, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(exportService, "chunkSize", 2);
+    }
+
+    @Test
+    void exportUsers_oneLinePerUser() throws IOException {
+        final List<User> users = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            final User user = TestdataGenerator.generateUserTestdataWithId();
+            user.setId(i);
+            users.add(user);
+        }
+        when(userRepository.streamAll()).thenReturn(users.stream());
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        assertEquals(3, exportService.exportUsers(outputStream));
+
+        final String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        final User exported = objectMapper.readValue(lines[2], User.class);
+        assertEquals(3, exported.getId());
+        assertEquals(users.get(2).getFirstname(), exported.getFirstname());
+    }
+
+    @Test
+    void exportUsers_clearsPersistenceContextPerChunk() throws IOException {
+        final User user = TestdataGenerator.generateUserTestdataWithId();
+        when(userRepository.streamAll()).thenReturn(Stream.of(user, user, user, user, user));
+
+        exportService.exportUsers(new ByteArrayOutputStream());
+
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void exportUsers_closesStream() throws IOException {
+        final boolean[] closed = {false};
+        when(userRepository.streamAll()).thenReturn(Stream.<User>empty().onClose(() -> closed[0] = true));
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        assertEquals(0, exportService.exportUsers(outputStream));
+        assertEquals(0, outputStream.size());
+        assertTrue(closed[0]);
+    }
+
+    @Test
+    void exportLocations_oneLinePerLocation() throws IOException {
+        when(locationRepository.streamAll()).thenReturn(Stream.of(TestdataGenerator.generateLocationTestdataWithId()));
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        assertEquals(1, exportService.exportLocations(outputStream));
+        assertTrue(outputStream.toString(StandardCharsets.UTF_8).endsWith("}\n"));
+    }
+
+    @Test
+    void exportFavorites_includesUserAndLocation() throws IOException {
+        final Favorite favorite = TestdataGenerator.generateFavoriteTestdataWithId();
+        when(favoriteRepository.streamAll()).thenReturn(Stream.of(favorite));
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        exportService.exportFavorites(outputStream);
+
+        final Favorite exported = objectMapper.readValue(outputStream.toString(StandardCharsets.UTF_8).trim(),
+                Favorite.class);
+        assertEquals(favorite.getUser().getId(), exported.getUser().getId());
+        assertEquals(favorite.getLocation().getName(), exported.getLocation().getName());
+    }
+}
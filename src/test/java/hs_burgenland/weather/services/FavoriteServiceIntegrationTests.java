@@ -0,0 +1,112 @@
+package hs_burgenland.weather.services;
+
+import hs_burgenland.weather.entities.Favorite;
+import hs_burgenland.weather.entities.FavoriteSummary;
+import hs_burgenland.weather.entities.KeysetPage;
+import hs_burgenland.weather.exceptions.EntityNotFoundException;
+import hs_burgenland.weather.repositories.FavoriteRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "forecast.prefetch.enabled=false"
+})
+class FavoriteServiceIntegrationTests {
+    private static final int FAVORITES = 1000;
+
+    @Autowired
+    private FavoriteService favoriteService;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    // every favorite has its own user and location, so per row loading would show up as 2000 extra statements
+    @BeforeEach
+    void setUp() {
+        final List<Object[]> users = new ArrayList<>();
+        final List<Object[]> locations = new ArrayList<>();
+        final List<Object[]> favorites = new ArrayList<>();
+        for (int id = 1; id <= FAVORITES; id++) {
+            users.add(new Object[]{id, "John" + id, "Doe"});
+            locations.add(new Object[]{id, "Location" + id, 40 + id * 0.01, 10 + id * 0.01, 200.0, "LOWW"});
+            favorites.add(new Object[]{id, "Favorite" + id, id == FAVORITES ? 1 : id, id});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, firstname, lastname) VALUES (?, ?, ?)", users);
+        jdbcTemplate.batchUpdate("INSERT INTO location (id, name, latitude, longitude, elevation, icao) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", locations);
+        jdbcTemplate.batchUpdate("INSERT INTO favorite (id, name, user_id, location_id) VALUES (?, ?, ?, ?)",
+                favorites);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM favorite");
+        jdbcTemplate.execute("ALTER TABLE favorite ALTER COLUMN id RESTART WITH 1");
+        jdbcTemplate.update("DELETE FROM location");
+        jdbcTemplate.execute("ALTER TABLE location ALTER COLUMN id RESTART WITH 1");
+        jdbcTemplate.update("DELETE FROM users");
+        jdbcTemplate.execute("ALTER TABLE users ALTER COLUMN id RESTART WITH 1");
+    }
+
+    @Test
+    void getFavoriteSummaries_singleStatement() {
+        final List<FavoriteSummary> favorites = favoriteService.getFavoriteSummaries(0, FAVORITES).getItems();
+
+        assertEquals(FAVORITES, favorites.size());
+        assertEquals("Location1000", favorites.getLast().getLocation().getName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findAll_singleStatement() {
+        final List<Favorite> favorites = favoriteRepository.findAll();
+
+        assertEquals(FAVORITES, favorites.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getFavoriteSummaries_followingPageSingleStatement() {
+        final KeysetPage<FavoriteSummary> page = favoriteService.getFavoriteSummaries(FAVORITES / 2, FAVORITES);
+
+        assertEquals(FAVORITES / 2, page.getItems().size());
+        assertEquals(FAVORITES / 2 + 1, page.getItems().getFirst().getId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getFavoritesByUserId_constantStatements() throws EntityNotFoundException {
+        // user lookup plus one select for the favorites
+        assertEquals(2, favoriteService.getFavoritesByUserId(1).size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        assertEquals(2, favoriteService.getFavoriteSummariesByUserId(1).size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
@@ -2,16 +2,27 @@ package hs_burgenland.weather.services;
 
 import hs_burgenland.weather.TestdataGenerator;
 import hs_burgenland.weather.entities.Favorite;
+import hs_burgenland.weather.entities.FavoriteSummary;
+import hs_burgenland.weather.entities.KeysetPage;
 import hs_burgenland.weather.entities.User;
 import hs_burgenland.weather.exceptions.EntityAlreadyExistingException;
 import hs_burgenland.weather.exceptions.EntityNotFoundException;
 import hs_burgenland.weather.repositories.FavoriteRepository;
+import org.apache.logging.log4j.util.InternalException;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -30,6 +41,9 @@ class FavoriteServiceTests {
     @Mock
     LocationService locationService;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private FavoriteService favoriteService;
 
@@ -38,6 +52,8 @@ class FavoriteServiceTests {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(favoriteService, "transactionTemplate",
+                new TransactionTemplate(transactionManager));
         favorite = TestdataGenerator.generateFavoriteTestdataWithId();
     }
 
@@ -45,135 +61,230 @@ class FavoriteServiceTests {
     void createFavorite_happyPath_userAndLocationAlreadyExisting() throws EntityNotFoundException, EntityAlreadyExistingException {
         final Favorite favorite = TestdataGenerator.generateFavoriteTestdataWithId();
 
-        when(favoriteRepository.existsByNameAndUserId(favorite.getName(), favorite.getUser().getId())).thenReturn(false);
         when(userService.getUserById(favorite.getUser().getId())).thenReturn(favorite.getUser());
         when(locationService.getLocationByName(favorite.getLocation().getName())).thenReturn(Optional.of(favorite.getLocation()));
-        when(favoriteRepository.existsByLocationIdAndUserId(favorite.getLocation().getId(), favorite.getUser().getId())).thenReturn(false);
         when(favoriteRepository.save(any(Favorite.class))).thenReturn(favorite);
 
         final Favorite createdFavorite = favoriteService.createFavorite(favorite.getLocation().getName(), favorite.getUser().getId(), favorite.getName());
 
         assertEquals(favorite, createdFavorite);
-        verify(favoriteRepository, times(1)).existsByNameAndUserId(favorite.getName(), favorite.getUser().getId());
         verify(userService, times(1)).getUserById(favorite.getUser().getId());
         verify(locationService, times(1)).getLocationByName(favorite.getLocation().getName());
-        verify(favoriteRepository, times(1)).existsByLocationIdAndUserId(favorite.getLocation().getId(), favorite.getUser().getId());
+        verify(locationService, never()).prepareLocation(any());
         verify(favoriteRepository, times(1)).save(any(Favorite.class));
+        verifyNoMoreInteractions(favoriteRepository);
     }
 
     @Test
     void createFavorite_happyPath_locationNotExisting() throws EntityNotFoundException, EntityAlreadyExistingException {
         final Favorite favorite = TestdataGenerator.generateFavoriteTestdataWithId();
 
-        when(favoriteRepository.existsByNameAndUserId(favorite.getName(), favorite.getUser().getId())).thenReturn(false);
         when(userService.getUserById(favorite.getUser().getId())).thenReturn(favorite.getUser());
         when(locationService.getLocationByName(favorite.getLocation().getName())).thenReturn(Optional.empty());
-        when(locationService.createLocation(favorite.getLocation().getName())).thenReturn(favorite.getLocation());
+        when(locationService.prepareLocation(favorite.getLocation().getName())).thenReturn(favorite.getLocation());
+        when(locationService.saveLocation(favorite.getLocation())).thenReturn(favorite.getLocation());
         when(favoriteRepository.save(any(Favorite.class))).thenReturn(favorite);
 
         final Favorite createdFavorite = favoriteService.createFavorite(favorite.getLocation().getName(), favorite.getUser().getId(), favorite.getName());
 
         assertEquals(favorite, createdFavorite);
-        verify(favoriteRepository, times(1)).existsByNameAndUserId(favorite.getName(), favorite.getUser().getId());
         verify(userService, times(1)).getUserById(favorite.getUser().getId());
         verify(locationService, times(1)).getLocationByName(favorite.getLocation().getName());
+        verify(locationService, times(1)).saveLocation(favorite.getLocation());
         verify(favoriteRepository, times(1)).save(any(Favorite.class));
+        // the location is geocoded before the transaction takes a connection
+        final InOrder inOrder = inOrder(locationService, transactionManager, favoriteRepository);
+        inOrder.verify(locationService).prepareLocation(favorite.getLocation().getName());
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(locationService).saveLocation(favorite.getLocation());
+        inOrder.verify(favoriteRepository).save(any(Favorite.class));
+        inOrder.verify(transactionManager).commit(any());
     }
 
     @Test
     void createFavorite_locationNotExisting_exceptionAtCreatingLocation()
             throws EntityNotFoundException, EntityAlreadyExistingException {
-        when(favoriteRepository.existsByNameAndUserId(favorite.getName(), favorite.getUser().getId())).thenReturn(false);
         when(userService.getUserById(favorite.getUser().getId())).thenReturn(favorite.getUser());
         when(locationService.getLocationByName(favorite.getLocation().getName())).thenReturn(Optional.empty());
-        when(locationService.createLocation(favorite.getLocation().getName())).thenThrow(new RuntimeException("Database error"));
+        when(locationService.prepareLocation(favorite.getLocation().getName())).thenReturn(favorite.getLocation());
+        when(locationService.saveLocation(favorite.getLocation())).thenThrow(new RuntimeException("Database error"));
 
         assertThrows(RuntimeException.class, () -> favoriteService.createFavorite(favorite.getLocation().getName(), favorite.getUser().getId(), favorite.getName()));
-        verify(favoriteRepository, times(1)).existsByNameAndUserId(favorite.getName(), favorite.getUser().getId());
         verify(userService, times(1)).getUserById(favorite.getUser().getId());
         verify(locationService, times(1)).getLocationByName(favorite.getLocation().getName());
-        verify(locationService, times(1)).createLocation(any());
+        verify(locationService, times(1)).saveLocation(any());
+        verify(favoriteRepository, never()).save(any(Favorite.class));
+    }
+
+    @Test
+    void createFavorite_locationNotExisting_exceptionAtGeocoding()
+            throws EntityNotFoundException, EntityAlreadyExistingException {
+        when(userService.getUserById(favorite.getUser().getId())).thenReturn(favorite.getUser());
+        when(locationService.getLocationByName(favorite.getLocation().getName())).thenReturn(Optional.empty());
+        when(locationService.prepareLocation(favorite.getLocation().getName()))
+                .thenThrow(new InternalException("Error while processing location data. No results found."));
+
+        assertThrows(InternalException.class, () -> favoriteService.createFavorite(favorite.getLocation().getName(), favorite.getUser().getId(), favorite.getName()));
+        verify(locationService, never()).saveLocation(any());
+        verify(favoriteRepository, never()).save(any(Favorite.class));
+    }
+
+    @Test
+    void createFavorite_newLocationWithExistingName_notGeocoded() throws EntityNotFoundException, EntityAlreadyExistingException {
+        when(userService.getUserById(favorite.getUser().getId())).thenReturn(favorite.getUser());
+        when(locationService.getLocationByName(favorite.getLocation().getName())).thenReturn(Optional.empty());
+        when(favoriteRepository.existsByUserIdAndName(favorite.getUser().getId(), favorite.getName())).thenReturn(true);
+
+        final EntityAlreadyExistingException exception = assertThrows(EntityAlreadyExistingException.class,
+                () -> favoriteService.createFavorite(favorite.getLocation().getName(), favorite.getUser().getId(), favorite.getName()));
+        assertEquals("Location with name Home is already a favorite location.", exception.getMessage());
+        verify(locationService, never()).prepareLocation(any());
+        verify(favoriteRepository, never()).save(any(Favorite.class));
     }
 
     @Test
     void createFavorite_userNotExisting() throws EntityNotFoundException {
-        when(favoriteRepository.existsByNameAndUserId(favorite.getName(), 99)).thenReturn(false);
         when(userService.getUserById(99))
                 .thenThrow(new EntityNotFoundException("User with id 99 not found."));
 
         assertThrows(EntityNotFoundException.class, () -> favoriteService.createFavorite(favorite.getLocation().getName(), 99, favorite.getName()));
-        verify(favoriteRepository, times(1)).existsByNameAndUserId(favorite.getName(), 99);
         verify(userService, times(1)).getUserById(99);
+        verify(favoriteRepository, never()).save(any(Favorite.class));
     }
 
     @Test
-    void createFavorite_favoriteWithNameAlreadyExisting() {
-        when(favoriteRepository.existsByNameAndUserId(favorite.getName(), favorite.getUser().getId())).thenReturn(true);
+    void createFavorite_userDeletedMeanwhile() throws EntityNotFoundException {
+        mockCreateFavoriteViolating("FAVORITE_USER_FK: PUBLIC.FAVORITE FOREIGN KEY(USER_ID) REFERENCES PUBLIC.USERS(ID)");
 
-        assertThrows(EntityAlreadyExistingException.class, () -> favoriteService.createFavorite(favorite.getLocation().getName(), favorite.getUser().getId(), favorite.getName()));
-        verify(favoriteRepository, times(1)).existsByNameAndUserId(favorite.getName(), favorite.getUser().getId());
+        final EntityNotFoundException exception = assertThrows(EntityNotFoundException.class,
+                () -> favoriteService.createFavorite(favorite.getLocation().getName(), favorite.getUser().getId(), favorite.getName()));
+        assertEquals("User with id 2 not found.", exception.getMessage());
+    }
+
+    @Test
+    void createFavorite_favoriteWithNameAlreadyExisting() throws EntityNotFoundException {
+        mockCreateFavoriteViolating("PUBLIC.FAVORITE_USER_NAME_KEY_INDEX_8 ON PUBLIC.FAVORITE(USER_ID, NAME)");
+
+        final EntityAlreadyExistingException exception = assertThrows(EntityAlreadyExistingException.class,
+                () -> favoriteService.createFavorite(favorite.getLocation().getName(), favorite.getUser().getId(), favorite.getName()));
+        assertEquals("Location with name Home is already a favorite location.", exception.getMessage());
+        verify(favoriteRepository, times(1)).save(any(Favorite.class));
     }
 
     @Test
     void createFavorite_favoriteWithUserAndLocationAlreadyExisting() throws EntityNotFoundException {
-        when(favoriteRepository.existsByNameAndUserId(favorite.getName(), favorite.getUser().getId())).thenReturn(false);
-        when(userService.getUserById(favorite.getUser().getId())).thenReturn(favorite.getUser());
-        when(locationService.getLocationByName(favorite.getLocation().getName())).thenReturn(Optional.of(favorite.getLocation()));
-        when(favoriteRepository.existsByLocationIdAndUserId(favorite.getLocation().getId(), favorite.getUser().getId())).thenReturn(true);
+        mockCreateFavoriteViolating(Favorite.USER_LOCATION_CONSTRAINT);
 
-        assertThrows(EntityAlreadyExistingException.class, () -> favoriteService.createFavorite(favorite.getLocation().getName(), favorite.getUser().getId(), favorite.getName()));
-        verify(favoriteRepository, times(1)).existsByNameAndUserId(favorite.getName(), favorite.getUser().getId());
-        verify(userService, times(1)).getUserById(favorite.getUser().getId());
-        verify(locationService, times(1)).getLocationByName(favorite.getLocation().getName());
-        verify(favoriteRepository, times(1)).existsByLocationIdAndUserId(favorite.getLocation().getId(), favorite.getUser().getId());
+        final EntityAlreadyExistingException exception = assertThrows(EntityAlreadyExistingException.class,
+                () -> favoriteService.createFavorite(favorite.getLocation().getName(), favorite.getUser().getId(), favorite.getName()));
+        assertEquals("Favorite with locationname Vienna,Austria and userId 2 already exists.", exception.getMessage());
+        verify(favoriteRepository, times(1)).save(any(Favorite.class));
     }
 
     @Test
-    void createFavorite_databaseError() throws EntityNotFoundException, EntityAlreadyExistingException {
-        when(favoriteRepository.existsByNameAndUserId(favorite.getName(), favorite.getUser().getId())).thenReturn(false);
+    void createFavorite_generatedConstraintName_nameAlreadyExisting() throws EntityNotFoundException {
+        mockCreateFavoriteViolating("uk_6hqo8sxdn1a1nlnnyh0ve4ahc");
+        when(favoriteRepository.existsByUserIdAndName(favorite.getUser().getId(), favorite.getName())).thenReturn(true);
+
+        final EntityAlreadyExistingException exception = assertThrows(EntityAlreadyExistingException.class,
+                () -> favoriteService.createFavorite(favorite.getLocation().getName(), favorite.getUser().getId(), favorite.getName()));
+        assertEquals("Location with name Home is already a favorite location.", exception.getMessage());
+    }
+
+    @Test
+    void createFavorite_generatedConstraintName_locationAlreadyExisting() throws EntityNotFoundException {
+        mockCreateFavoriteViolating("uk_7vwpqc2ah3xcbm1lqmsq0ltv9");
+        when(favoriteRepository.existsByUserIdAndLocationId(favorite.getUser().getId(), favorite.getLocation().getId()))
+                .thenReturn(true);
+
+        final EntityAlreadyExistingException exception = assertThrows(EntityAlreadyExistingException.class,
+                () -> favoriteService.createFavorite(favorite.getLocation().getName(), favorite.getUser().getId(), favorite.getName()));
+        assertEquals("Favorite with locationname Vienna,Austria and userId 2 already exists.", exception.getMessage());
+    }
+
+    @Test
+    void createFavorite_generatedConstraintName_userDeletedMeanwhile() throws EntityNotFoundException {
+        mockCreateFavoriteViolating("fkh3f2dg11ibnht4fvnmx60jcif");
+        when(userService.userExists(favorite.getUser().getId())).thenReturn(false);
+
+        final EntityNotFoundException exception = assertThrows(EntityNotFoundException.class,
+                () -> favoriteService.createFavorite(favorite.getLocation().getName(), favorite.getUser().getId(), favorite.getName()));
+        assertEquals("User with id 2 not found.", exception.getMessage());
+    }
+
+    @Test
+    void createFavorite_otherConstraintViolated() throws EntityNotFoundException {
+        mockCreateFavoriteViolating("favorite_name_not_null");
+        when(userService.userExists(favorite.getUser().getId())).thenReturn(true);
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> favoriteService.createFavorite(favorite.getLocation().getName(), favorite.getUser().getId(), favorite.getName()));
+    }
+
+    @Test
+    void createFavorite_databaseError() throws EntityNotFoundException {
         when(userService.getUserById(favorite.getUser().getId())).thenReturn(favorite.getUser());
         when(locationService.getLocationByName(favorite.getLocation().getName())).thenReturn(Optional.of(favorite.getLocation()));
-        when(favoriteRepository.existsByLocationIdAndUserId(favorite.getLocation().getId(), favorite.getUser().getId())).thenReturn(false);
         when(favoriteRepository.save(any(Favorite.class))).thenThrow(new RuntimeException("Database error"));
 
         assertThrows(RuntimeException.class, () -> favoriteService.createFavorite(favorite.getLocation().getName(), favorite.getUser().getId(), favorite.getName()));
-        verify(favoriteRepository, times(1)).existsByNameAndUserId(favorite.getName(), favorite.getUser().getId());
         verify(userService, times(1)).getUserById(favorite.getUser().getId());
         verify(locationService, times(1)).getLocationByName(favorite.getLocation().getName());
-        verify(favoriteRepository, times(1)).existsByLocationIdAndUserId(favorite.getLocation().getId(), favorite.getUser().getId());
         verify(favoriteRepository, times(1)).save(any(Favorite.class));
     }
 
+    private void mockCreateFavoriteViolating(final String constraintName) throws EntityNotFoundException {
+        when(userService.getUserById(favorite.getUser().getId())).thenReturn(favorite.getUser());
+        when(locationService.getLocationByName(favorite.getLocation().getName())).thenReturn(Optional.of(favorite.getLocation()));
+        when(favoriteRepository.save(any(Favorite.class))).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", new SQLException(), constraintName)));
+    }
+
     @Test
-    void getAllFavorites_success() {
-        final List<Favorite> favorites = new ArrayList<>();
-        favorites.add(new Favorite());
-        favorites.add(new Favorite());
+    void getFavoriteSummaries_success() {
+        final List<FavoriteSummary> favorites = new ArrayList<>();
+        favorites.add(TestdataGenerator.generateFavoriteSummaryTestdata());
+        favorites.add(TestdataGenerator.generateFavoriteSummaryTestdata());
 
-        when(favoriteRepository.findAll()).thenReturn(favorites);
+        when(favoriteRepository.findSummariesByIdGreaterThan(0, Limit.of(KeysetPage.MAX_LIMIT + 1))).thenReturn(favorites);
 
-        final List<Favorite> foundFavorites = favoriteService.getAllFavorites();
+        final KeysetPage<FavoriteSummary> page = favoriteService.getFavoriteSummaries(0, KeysetPage.MAX_LIMIT);
 
-        assertEquals(2, foundFavorites.size());
-        verify(favoriteRepository, times(1)).findAll();
+        assertEquals(2, page.getItems().size());
+        assertNull(page.getNextCursor());
+        verify(favoriteRepository, never()).findAll();
     }
 
     @Test
-    void getAllFavorites_emptyList() {
-        when(favoriteRepository.findAll()).thenReturn(new ArrayList<>());
+    void getFavoriteSummaries_emptyList() {
+        when(favoriteRepository.findSummariesByIdGreaterThan(0, Limit.of(KeysetPage.MAX_LIMIT + 1))).thenReturn(new ArrayList<>());
 
-        final List<Favorite> foundFavorites = favoriteService.getAllFavorites();
+        final KeysetPage<FavoriteSummary> page = favoriteService.getFavoriteSummaries(0, KeysetPage.MAX_LIMIT);
 
-        assertTrue(foundFavorites.isEmpty());
-        verify(favoriteRepository, times(1)).findAll();
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNextCursor());
     }
 
     @Test
-    void getAllFavorites_databaseError() {
-        when(favoriteRepository.findAll()).thenThrow(new RuntimeException("Database error"));
+    void getFavoriteSummaries_page() {
+        final FavoriteSummary first = TestdataGenerator.generateFavoriteSummaryTestdata();
+        final FavoriteSummary second = TestdataGenerator.generateFavoriteSummaryTestdata();
+        second.setId(2);
 
-        assertThrows(RuntimeException.class, favoriteService::getAllFavorites);
-        verify(favoriteRepository, times(1)).findAll();
+        when(favoriteRepository.findSummariesByIdGreaterThan(0, Limit.of(2))).thenReturn(List.of(first, second));
+
+        final KeysetPage<FavoriteSummary> page = favoriteService.getFavoriteSummaries(0, 1);
+
+        assertEquals(List.of(first), page.getItems());
+        assertEquals(1, page.getNextCursor());
+    }
+
+    @Test
+    void getFavoriteSummaries_databaseError() {
+        when(favoriteRepository.findSummariesByIdGreaterThan(0, Limit.of(KeysetPage.MAX_LIMIT + 1)))
+                .thenThrow(new RuntimeException("Database error"));
+
+        assertThrows(RuntimeException.class, () -> favoriteService.getFavoriteSummaries(0, KeysetPage.MAX_LIMIT));
     }
 
     @Test
@@ -213,6 +324,27 @@ class FavoriteServiceTests {
         verify(favoriteRepository, times(1)).findByUserId(1);
     }
 
+    @Test
+    void getFavoriteSummariesByUserId_success() throws EntityNotFoundException {
+        final FavoriteSummary summary = TestdataGenerator.generateFavoriteSummaryTestdata();
+        when(userService.getUserById(2)).thenReturn(new User());
+        when(favoriteRepository.findSummariesByUserId(2)).thenReturn(List.of(summary));
+
+        final List<FavoriteSummary> foundFavorites = favoriteService.getFavoriteSummariesByUserId(2);
+
+        assertEquals(List.of(summary), foundFavorites);
+        assertEquals("Vienna,Austria", foundFavorites.getFirst().getLocation().getName());
+        verify(favoriteRepository, never()).findByUserId(anyInt());
+    }
+
+    @Test
+    void getFavoriteSummariesByUserId_userNotExisting() throws EntityNotFoundException {
+        when(userService.getUserById(99)).thenThrow(new EntityNotFoundException("User with id 99 not found."));
+
+        assertThrows(EntityNotFoundException.class, () -> favoriteService.getFavoriteSummariesByUserId(99));
+        verify(favoriteRepository, never()).findSummariesByUserId(anyInt());
+    }
+
     @Test
     void getFavoriteById_success() throws EntityNotFoundException {
         when(favoriteRepository.findById(1)).thenReturn(Optional.of(favorite));
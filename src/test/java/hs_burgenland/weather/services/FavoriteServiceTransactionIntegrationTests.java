@@ -0,0 +1,51 @@
+package hs_burgenland.weather.services;
+
+import hs_burgenland.weather.entities.User;
+import hs_burgenland.weather.exceptions.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = "forecast.prefetch.enabled=false")
+class FavoriteServiceTransactionIntegrationTests {
+    @Autowired
+    private FavoriteService favoriteService;
+
+    @Autowired
+    private LocationService locationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // hands out a user that was deleted meanwhile, so the insert fails after the new location has been saved
+    @MockitoBean
+    private UserService userService;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM favorite");
+        jdbcTemplate.execute("ALTER TABLE favorite ALTER COLUMN id RESTART WITH 1");
+        jdbcTemplate.update("DELETE FROM location");
+        jdbcTemplate.execute("ALTER TABLE location ALTER COLUMN id RESTART WITH 1");
+    }
+
+    @Test
+    void createFavorite_rejectedInsertRollsBackNewLocation() throws EntityNotFoundException {
+        final User deletedUser = new User();
+        deletedUser.setId(99);
+        when(userService.getUserById(99)).thenReturn(deletedUser);
+
+        assertThrows(EntityNotFoundException.class, () -> favoriteService.createFavorite("Vienna", 99, "Home"));
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM location", Integer.class));
+        assertTrue(locationService.getLocationByName("Vienna").isEmpty());
+    }
+}
@@ -0,0 +1,128 @@
+package hs_burgenland.weather.services;
+
+import hs_burgenland.weather.TestdataGenerator;
+import hs_burgenland.weather.entities.ForecastSeries;
+import hs_burgenland.weather.entities.Location;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForecastCacheTests {
+    private static ForecastCache cacheAt(final String instant) {
+        return new ForecastCache(2, Duration.ofHours(1), Duration.ofMinutes(15), Duration.ZERO, Duration.ofDays(1),
+                Clock.fixed(Instant.parse(instant), ZoneOffset.UTC));
+    }
+
+    private static ForecastCache graceCacheAt(final String instant) {
+        return new ForecastCache(2, Duration.ofHours(1), Duration.ofMinutes(15), Duration.ofMinutes(5),
+                Duration.ofDays(1), Clock.fixed(Instant.parse(instant), ZoneOffset.UTC));
+    }
+
+    @Test
+    void timeToNextModelUpdate_beforeDelay() {
+        assertEquals(Duration.ofMinutes(5), cacheAt("2025-02-13T10:10:00Z").timeToNextModelUpdate());
+    }
+
+    @Test
+    void timeToNextModelUpdate_afterDelay() {
+        assertEquals(Duration.ofMinutes(55), cacheAt("2025-02-13T10:20:00Z").timeToNextModelUpdate());
+    }
+
+    @Test
+    void timeToNextModelUpdate_exactlyAtUpdate() {
+        assertEquals(Duration.ofHours(1), cacheAt("2025-02-13T10:15:00Z").timeToNextModelUpdate());
+    }
+
+    @Test
+    void put_stampsCurrentModelRun() {
+        final ForecastSeries cachedSeries = cacheAt("2025-02-13T10:10:00Z")
+                .put(TestdataGenerator.generateLocationTestdataWithId(), TestdataGenerator.generateForecastSeries());
+
+        assertEquals(Instant.parse("2025-02-13T09:15:00Z").toEpochMilli(), cachedSeries.getModelRunMillis());
+    }
+
+    @Test
+    void timeToSupersede_currentForecast() {
+        final ForecastSeries cachedSeries = graceCacheAt("2025-02-13T10:10:00Z")
+                .put(TestdataGenerator.generateLocationTestdataWithId(), TestdataGenerator.generateForecastSeries());
+
+        assertEquals(Duration.ofMinutes(3), graceCacheAt("2025-02-13T10:12:00Z").timeToSupersede(cachedSeries));
+    }
+
+    // fetched at 10:10 from the 09:15 run, still served at 10:16 within the grace
+    @Test
+    void timeToSupersede_zeroWithinGrace() {
+        final ForecastCache cacheAtFetch = graceCacheAt("2025-02-13T10:10:00Z");
+        final ForecastSeries cachedSeries = cacheAtFetch
+                .put(TestdataGenerator.generateLocationTestdataWithId(), TestdataGenerator.generateForecastSeries());
+
+        final ForecastCache cacheWithinGrace = graceCacheAt("2025-02-13T10:16:00Z");
+        assertEquals(Duration.ZERO, cacheWithinGrace.timeToSupersede(cachedSeries));
+        assertNotEquals(cacheWithinGrace.currentModelRunMillis(), cachedSeries.getModelRunMillis());
+    }
+
+    @Test
+    void timeToSupersede_unknownModelRun() {
+        assertEquals(Duration.ZERO,
+                graceCacheAt("2025-02-13T10:12:00Z").timeToSupersede(TestdataGenerator.generateForecastSeries()));
+    }
+
+    @Test
+    void get_hitAndMissCounted() {
+        final ForecastCache forecastCache = cacheAt("2025-02-13T10:20:00Z");
+        final Location location = TestdataGenerator.generateLocationTestdataWithId();
+
+        assertTrue(forecastCache.get(location).isEmpty());
+        forecastCache.put(location, TestdataGenerator.generateForecastSeries());
+        assertEquals(24, forecastCache.get(location).orElseThrow().size());
+
+        assertEquals(1, forecastCache.stats().hitCount());
+        assertEquals(1, forecastCache.stats().missCount());
+    }
+
+    @Test
+    void get_keyedByLocationIdAndCoordinates() {
+        final ForecastCache forecastCache = cacheAt("2025-02-13T10:20:00Z");
+        final Location location = TestdataGenerator.generateLocationTestdataWithId();
+        forecastCache.put(location, TestdataGenerator.generateForecastSeries());
+
+        final Location movedLocation = TestdataGenerator.generateLocationTestdataWithId();
+        movedLocation.setLatitude(47.070_78);
+
+        assertTrue(forecastCache.get(movedLocation).isEmpty());
+    }
+
+    @Test
+    void invalidate_removesEntry() {
+        final ForecastCache forecastCache = cacheAt("2025-02-13T10:20:00Z");
+        final Location location = TestdataGenerator.generateLocationTestdataWithId();
+        forecastCache.put(location, TestdataGenerator.generateForecastSeries());
+
+        forecastCache.invalidate(location);
+
+        assertFalse(forecastCache.get(location).isPresent());
+    }
+
+    @Test
+    void getLastGood_keptAfterInvalidateAndMarkedStale() {
+        final ForecastCache forecastCache = cacheAt("2025-02-13T10:20:00Z");
+        final Location location = TestdataGenerator.generateLocationTestdataWithId();
+        forecastCache.put(location, TestdataGenerator.generateForecastSeries());
+
+        forecastCache.invalidate(location);
+
+        assertTrue(forecastCache.getLastGood(location).orElseThrow().isStale());
+        assertEquals(TestdataGenerator.generateForecastSeries(), forecastCache.getLastGood(location).orElseThrow());
+    }
+
+    @Test
+    void getLastGood_missing() {
+        assertTrue(cacheAt("2025-02-13T10:20:00Z").getLastGood(TestdataGenerator.generateLocationTestdataWithId())
+                .isEmpty());
+    }
+}
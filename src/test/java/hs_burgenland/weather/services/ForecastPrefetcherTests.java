@@ -0,0 +1,168 @@
+package hs_burgenland.weather.services;
+
+import hs_burgenland.weather.entities.Location;
+import hs_burgenland.weather.repositories.FavoriteRepository;
+import org.apache.logging.log4j.util.InternalException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ForecastPrefetcherTests {
+    private static final Instant START = Instant.parse("2025-02-13T10:20:00Z");
+
+    @Mock
+    FavoriteRepository favoriteRepository;
+
+    @Mock
+    WeatherForecastService weatherForecastService;
+
+    @Mock
+    ForecastCache forecastCache;
+
+    @InjectMocks
+    ForecastPrefetcher forecastPrefetcher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(forecastPrefetcher, "tick", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(forecastPrefetcher, "spread", Duration.ZERO);
+        ReflectionTestUtils.setField(forecastPrefetcher, "retryDelay", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(forecastPrefetcher, "maxRequestsPerMinute", 60);
+        ReflectionTestUtils.setField(forecastPrefetcher, "forecastCacheProperties", new ForecastCacheProperties());
+        setTime(START);
+        forecastPrefetcher.initialize();
+
+        when(weatherForecastService.refreshWeatherForecasts(anyList())).thenReturn(Mono.just(List.of()));
+        when(forecastCache.nextModelUpdateMillis()).thenReturn(Instant.parse("2025-02-13T11:15:00Z").toEpochMilli());
+    }
+
+    private void setTime(final Instant instant) {
+        ReflectionTestUtils.setField(forecastPrefetcher, "clock", Clock.fixed(instant, ZoneOffset.UTC));
+    }
+
+    private void tickAt(final Instant instant) {
+        setTime(instant);
+        forecastPrefetcher.tick();
+    }
+
+    private static List<Location> createLocations(final int count) {
+        return IntStream.rangeClosed(1, count).mapToObj(id -> {
+            final Location location = new Location();
+            location.setId(id);
+            location.setName("Location " + id);
+            location.setLatitude(47 + id / 1000.0);
+            location.setLongitude(16);
+            return location;
+        }).toList();
+    }
+
+    @Test
+    void tick_favoritedLocationsRefreshedInBatches() {
+        when(favoriteRepository.findFavoriteLocations()).thenReturn(createLocations(120));
+        forecastPrefetcher.syncLocations();
+
+        tickAt(START.plusSeconds(3));
+
+        final ArgumentCaptor<List<Location>> captor = ArgumentCaptor.forClass(List.class);
+        verify(weatherForecastService, times(3)).refreshWeatherForecasts(captor.capture());
+        assertEquals(List.of(50, 50, 20), captor.getAllValues().stream().map(List::size).toList());
+    }
+
+    @Test
+    void tick_requestBudgetRespected() {
+        when(favoriteRepository.findFavoriteLocations()).thenReturn(createLocations(120));
+        forecastPrefetcher.syncLocations();
+
+        tickAt(START.plusSeconds(1));
+        verify(weatherForecastService, times(1)).refreshWeatherForecasts(anyList());
+        assertEquals(70, forecastPrefetcher.backlogSize());
+
+        tickAt(START.plusSeconds(2));
+        verify(weatherForecastService, times(2)).refreshWeatherForecasts(anyList());
+        assertEquals(20, forecastPrefetcher.backlogSize());
+    }
+
+    @Test
+    void tick_refreshedAgainAfterNextModelUpdate() {
+        when(favoriteRepository.findFavoriteLocations()).thenReturn(createLocations(1));
+        forecastPrefetcher.syncLocations();
+        tickAt(START.plusSeconds(1));
+
+        tickAt(Instant.parse("2025-02-13T11:14:59Z"));
+        verify(weatherForecastService, times(1)).refreshWeatherForecasts(anyList());
+
+        tickAt(Instant.parse("2025-02-13T11:15:00Z"));
+        verify(weatherForecastService, times(2)).refreshWeatherForecasts(anyList());
+    }
+
+    @Test
+    void tick_failedRefreshRetriedAfterDelay() {
+        when(favoriteRepository.findFavoriteLocations()).thenReturn(createLocations(1));
+        when(weatherForecastService.refreshWeatherForecasts(anyList()))
+                .thenReturn(Mono.error(new InternalException("Error while processing weather data.")))
+                .thenReturn(Mono.just(List.of()));
+        forecastPrefetcher.syncLocations();
+        tickAt(START.plusSeconds(1));
+
+        tickAt(START.plusSeconds(60));
+        verify(weatherForecastService, times(1)).refreshWeatherForecasts(anyList());
+
+        tickAt(START.plusSeconds(61));
+        verify(weatherForecastService, times(2)).refreshWeatherForecasts(anyList());
+    }
+
+    @Test
+    void syncLocations_removedFavoritesNoLongerRefreshed() {
+        final List<Location> locations = createLocations(2);
+        when(favoriteRepository.findFavoriteLocations())
+                .thenReturn(locations)
+                .thenReturn(List.of(locations.getFirst()));
+        forecastPrefetcher.syncLocations();
+        forecastPrefetcher.syncLocations();
+
+        tickAt(START.plusSeconds(1));
+
+        final ArgumentCaptor<List<Location>> captor = ArgumentCaptor.forClass(List.class);
+        verify(weatherForecastService, times(1)).refreshWeatherForecasts(captor.capture());
+        assertEquals(List.of(locations.getFirst()), new ArrayList<>(captor.getValue()));
+    }
+
+    @Test
+    void syncLocations_knownLocationsNotScheduledTwice() {
+        when(favoriteRepository.findFavoriteLocations()).thenReturn(createLocations(1));
+        forecastPrefetcher.syncLocations();
+        forecastPrefetcher.syncLocations();
+
+        tickAt(START.plusSeconds(2));
+
+        final ArgumentCaptor<List<Location>> captor = ArgumentCaptor.forClass(List.class);
+        verify(weatherForecastService, times(1)).refreshWeatherForecasts(captor.capture());
+        assertEquals(1, captor.getValue().size());
+    }
+
+    @Test
+    void refreshCapacity_requestsWithinRefreshGrace() {
+        assertEquals(15_000, forecastPrefetcher.refreshCapacity());
+
+        ReflectionTestUtils.setField(forecastPrefetcher, "maxRequestsPerMinute", 80);
+        assertEquals(20_000, forecastPrefetcher.refreshCapacity());
+    }
+}
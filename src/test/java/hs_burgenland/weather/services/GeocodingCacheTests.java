@@ -0,0 +1,86 @@
+package hs_burgenland.weather.services;
+
+import hs_burgenland.weather.TestdataGenerator;
+import hs_burgenland.weather.entities.GeocodingResult;
+import hs_burgenland.weather.repositories.GeocodingResultRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class GeocodingCacheTests {
+    private static final Instant NOW = Instant.parse("2025-02-13T10:00:00Z");
+
+    @Mock
+    private GeocodingResultRepository geocodingResultRepository;
+
+    private GeocodingCache geocodingCache;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        geocodingCache = new GeocodingCache(geocodingResultRepository, 100, Duration.ofDays(30), Duration.ofHours(1),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void normalize_variants() {
+        assertEquals("graz", GeocodingCache.normalize("Graz"));
+        assertEquals("graz", GeocodingCache.normalize(" graz "));
+        assertEquals("graz,austria", GeocodingCache.normalize("Graz , Austria"));
+        assertEquals("sankt pölten", GeocodingCache.normalize("Sankt   Pölten"));
+    }
+
+    @Test
+    void putFound_servedFromMemoryForRequestedAndResolvedName() {
+        geocodingCache.putFound("Vienna", TestdataGenerator.generateLocationTestdataWithId());
+
+        assertEquals(48.208_49, geocodingCache.get("vienna ").orElseThrow().getLatitude());
+        assertTrue(geocodingCache.get("Vienna, Austria").orElseThrow().isFound());
+        verify(geocodingResultRepository, times(2)).save(any());
+        verify(geocodingResultRepository, never()).findById(any());
+    }
+
+    @Test
+    void putNotFound_expiresAfterNegativeTtl() {
+        geocodingCache.putNotFound("InvalidData");
+
+        final GeocodingResult result = geocodingCache.get("invaliddata").orElseThrow();
+        assertFalse(result.isFound());
+        assertEquals(NOW.plus(Duration.ofHours(1)), result.getExpiresAt());
+    }
+
+    @Test
+    void get_loadsStoredResult() {
+        final GeocodingResult storedResult = new GeocodingResult();
+        storedResult.setNormalizedName("graz");
+        storedResult.setFound(true);
+        storedResult.setName("Graz,Austria");
+        storedResult.setExpiresAt(NOW.plus(Duration.ofDays(1)));
+        when(geocodingResultRepository.findById("graz")).thenReturn(Optional.of(storedResult));
+
+        assertEquals("Graz,Austria", geocodingCache.get("Graz").orElseThrow().getName());
+        assertEquals("Graz,Austria", geocodingCache.get("Graz").orElseThrow().getName());
+        verify(geocodingResultRepository, times(1)).findById("graz");
+    }
+
+    @Test
+    void get_ignoresExpiredStoredResult() {
+        final GeocodingResult storedResult = new GeocodingResult();
+        storedResult.setNormalizedName("graz");
+        storedResult.setFound(false);
+        storedResult.setExpiresAt(NOW.minusSeconds(1));
+        when(geocodingResultRepository.findById("graz")).thenReturn(Optional.of(storedResult));
+
+        assertTrue(geocodingCache.get("Graz").isEmpty());
+    }
+}
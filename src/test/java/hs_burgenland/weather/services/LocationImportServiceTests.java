@@ -0,0 +1,188 @@
+package hs_burgenland.weather.services;
+
+import hs_burgenland.weather.TestdataGenerator;
+import hs_burgenland.weather.entities.Location;
+import hs_burgenland.weather.entities.LocationImportResult;
+import org.apache.logging.log4j.util.InternalException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class LocationImportServiceTests {
+    @Mock
+    private LocationService locationService;
+
+    @InjectMocks
+    private LocationImportService locationImportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(locationImportService, "blockingScheduler", Schedulers.immediate());
+        ReflectionTestUtils.setField(locationImportService, "concurrency", 4);
+        ReflectionTestUtils.setField(locationImportService, "batchSize", 10);
+        ReflectionTestUtils.setField(locationImportService, "batchTimeout", Duration.ofMillis(100));
+        when(locationService.saveLocations(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    private static Location graz() {
+        final Location location = TestdataGenerator.generateLocationTestdataWithoutId();
+        location.setName("Graz,Austria");
+        location.setLatitude(47.066_67);
+        location.setLongitude(15.45);
+        return location;
+    }
+
+    private Map<String, LocationImportResult> importNames(final String... names) {
+        return locationImportService.importLocations(Flux.just(names))
+                .collectList()
+                .block()
+                .stream()
+                .collect(Collectors.toMap(LocationImportResult::getName, Function.identity()));
+    }
+
+    @Test
+    void importLocations_createdDuplicateAndFailed() {
+        when(locationService.resolveLocation("Vienna")).thenReturn(TestdataGenerator.generateLocationTestdataWithoutId());
+        when(locationService.resolveLocation("Wien")).thenReturn(TestdataGenerator.generateLocationTestdataWithoutId());
+        when(locationService.resolveLocation("Nowhere"))
+                .thenThrow(new InternalException("Error while processing location data. No results found."));
+
+        final Map<String, LocationImportResult> results = importNames("Vienna", "Wien", "Nowhere");
+
+        assertEquals(3, results.size());
+        assertEquals(1, results.values().stream()
+                .filter(result -> result.getStatus() == LocationImportResult.Status.CREATED).count());
+        assertEquals(1, results.values().stream()
+                .filter(result -> result.getStatus() == LocationImportResult.Status.DUPLICATE).count());
+        assertEquals(LocationImportResult.Status.FAILED, results.get("Nowhere").getStatus());
+        verify(locationService, times(1)).resolveAirport(any());
+        verify(locationService, times(1)).saveLocations(anyList());
+    }
+
+    @Test
+    void importLocations_existingLocation() {
+        final Location vienna = TestdataGenerator.generateLocationTestdataWithoutId();
+        when(locationService.resolveLocation("Vienna")).thenReturn(vienna);
+        when(locationService.locationExists(vienna)).thenReturn(true);
+
+        assertEquals(LocationImportResult.Status.DUPLICATE, importNames("Vienna").get("Vienna").getStatus());
+        verify(locationService, never()).resolveAirport(any());
+        verify(locationService, never()).saveLocations(anyList());
+    }
+
+    @Test
+    void importLocations_failedChunkStoredOneByOne() {
+        final Location vienna = TestdataGenerator.generateLocationTestdataWithoutId();
+        final Location graz = graz();
+        when(locationService.resolveLocation("Vienna")).thenReturn(vienna);
+        when(locationService.resolveLocation("Graz")).thenReturn(graz);
+        when(locationService.saveLocations(anyList())).thenAnswer(invocation -> {
+            final List<Location> locations = invocation.getArgument(0);
+            if (locations.size() > 1 || locations.contains(vienna)) {
+                throw new IllegalStateException("Unique index or primary key violation");
+            }
+            return locations;
+        });
+
+        final Map<String, LocationImportResult> results = importNames("Vienna", "Graz");
+
+        assertEquals(LocationImportResult.Status.FAILED, results.get("Vienna").getStatus());
+        assertEquals(LocationImportResult.Status.CREATED, results.get("Graz").getStatus());
+    }
+
+    @Test
+    void importLocations_concurrentlyStoredLocationIsDuplicate() {
+        final Location vienna = TestdataGenerator.generateLocationTestdataWithoutId();
+        final Location graz = graz();
+        when(locationService.resolveLocation("Vienna")).thenReturn(vienna);
+        when(locationService.resolveLocation("Graz")).thenReturn(graz);
+        // Vienna is stored by another replica between the resolution and the chunk insert
+        when(locationService.locationExists(vienna)).thenReturn(false, true);
+        when(locationService.saveLocations(anyList())).thenAnswer(invocation -> {
+            final List<Location> locations = invocation.getArgument(0);
+            if (locations.contains(vienna)) {
+                throw new IllegalStateException("Unique index or primary key violation");
+            }
+            return locations;
+        });
+
+        final Map<String, LocationImportResult> results = importNames("Vienna", "Graz");
+
+        assertEquals(LocationImportResult.Status.DUPLICATE, results.get("Vienna").getStatus());
+        assertEquals(LocationImportResult.Status.CREATED, results.get("Graz").getStatus());
+        verify(locationService, never()).saveLocations(List.of(vienna));
+    }
+
+    @Test
+    void importLocations_csvBody() {
+        when(locationService.resolveLocation(any())).thenAnswer(invocation -> {
+            final Location location = graz();
+            location.setName(invocation.getArgument(0));
+            location.setLatitude(location.getName().length());
+            return location;
+        });
+        final String csv = "name\nGraz\n\"Graz,Austria\",ignored\n\nLinz,Austria\n";
+
+        final List<String> names = locationImportService
+                .importLocations(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), false)
+                .map(LocationImportResult::getName)
+                .collectList()
+                .block();
+
+        assertEquals(List.of("Graz", "Graz,Austria", "Linz"), names);
+    }
+
+    @Test
+    void importLocations_resultsWrittenAsNdjson() throws IOException {
+        when(locationService.resolveLocation("Graz")).thenReturn(graz());
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        final long count = locationImportService.importLocations(
+                new ByteArrayInputStream("Graz\n".getBytes(StandardCharsets.UTF_8)), false, outputStream);
+
+        assertEquals(1, count);
+        final String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1, lines.length);
+        assertTrue(lines[0].startsWith("{\"name\":\"Graz\",\"status\":\"CREATED\""));
+    }
+
+    @Test
+    void importLocations_ndjsonBody() {
+        when(locationService.resolveLocation(any())).thenAnswer(invocation -> {
+            final Location location = graz();
+            location.setLatitude(((String) invocation.getArgument(0)).length());
+            return location;
+        });
+        final String ndjson = "\"Graz\"\n{\"name\": \"Sankt Pölten\"}\n";
+
+        final List<String> names = locationImportService
+                .importLocations(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), true)
+                .map(LocationImportResult::getName)
+                .collectList()
+                .block();
+
+        assertEquals(List.of("Graz", "Sankt Pölten"), names);
+    }
+}
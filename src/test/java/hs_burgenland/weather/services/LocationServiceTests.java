@@ -2,6 +2,8 @@ package hs_burgenland.weather.services;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import hs_burgenland.weather.TestdataGenerator;
+import hs_burgenland.weather.entities.GeocodingResult;
+import hs_burgenland.weather.entities.KeysetPage;
 import hs_burgenland.weather.entities.Location;
 import hs_burgenland.weather.exceptions.EntityAlreadyExistingException;
 import hs_burgenland.weather.exceptions.EntityNotFoundException;
@@ -10,13 +12,16 @@ import org.apache.logging.log4j.util.InternalException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.data.domain.Limit;
 
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class LocationServiceTests {
@@ -26,6 +31,12 @@ class LocationServiceTests {
     @Mock
     private ApiRequestService apiRequestService;
 
+    @Mock
+    private GeocodingCache geocodingCache;
+
+    @Mock
+    private AirportIndex airportIndex;
+
     @InjectMocks
     private LocationService locationService;
 
@@ -75,6 +86,58 @@ class LocationServiceTests {
         assertEquals(expectedLocation.getLongitude(), capturedLocation.getLongitude());
         assertEquals(expectedLocation.getElevation(), capturedLocation.getElevation());
         assertEquals(expectedLocation.getIcao(), capturedLocation.getIcao());
+        verify(geocodingCache).putFound(eq("Vienna"), any(Location.class));
+    }
+
+    @Test
+    void createLocation_cachedGeocodingResult() throws EntityAlreadyExistingException {
+        final GeocodingResult geocodingResult = new GeocodingResult();
+        geocodingResult.setFound(true);
+        geocodingResult.setName("Vienna,Austria");
+        geocodingResult.setLatitude(48.208_49);
+        geocodingResult.setLongitude(16.372_08);
+        geocodingResult.setElevation(171.0);
+        when(geocodingCache.get("vienna ")).thenReturn(Optional.of(geocodingResult));
+
+        when(locationRepository.getLocationByLatitudeAndLongitude(48.208_49, 16.372_08))
+                .thenReturn(Optional.empty());
+        when(apiRequestService.retrieveAirportData(any())).thenReturn("[{\"coordinate_distance\":0.22067019115412875," +
+                "\"station\":{\"city\":\"Vienna\",\"elevation_ft\":600,\"elevation_m\":183,\"icao\":\"LOWW\"}}]");
+
+        locationService.createLocation("vienna ");
+
+        final ArgumentCaptor<Location> captor = ArgumentCaptor.forClass(Location.class);
+        verify(locationRepository).save(captor.capture());
+        assertEquals("Vienna,Austria", captor.getValue().getName());
+        assertEquals(48.208_49, captor.getValue().getLatitude());
+        verify(apiRequestService, never()).retrieveLocationData(any());
+    }
+
+    @Test
+    void createLocation_airportFromIndex() throws EntityAlreadyExistingException {
+        when(apiRequestService.retrieveLocationData(any())).thenReturn("{\"results\":[{\"name\":\"Vienna\"" +
+                ",\"latitude\":48.20849,\"longitude\":16.37208,\"elevation\":171.0," +
+                "\"country\":\"Austria\"}],\"generationtime_ms\":1.2409687}");
+        when(locationRepository.getLocationByLatitudeAndLongitude(48.208_49, 16.372_08))
+                .thenReturn(Optional.empty());
+        when(airportIndex.findNearestIcao(48.208_49, 16.372_08)).thenReturn(Optional.of("LOWW"));
+
+        locationService.createLocation("Vienna");
+
+        final ArgumentCaptor<Location> captor = ArgumentCaptor.forClass(Location.class);
+        verify(locationRepository).save(captor.capture());
+        assertEquals("LOWW", captor.getValue().getIcao());
+        verify(apiRequestService, never()).retrieveAirportData(any());
+    }
+
+    @Test
+    void createLocation_cachedNoResults() {
+        final GeocodingResult geocodingResult = new GeocodingResult();
+        geocodingResult.setFound(false);
+        when(geocodingCache.get("InvalidData")).thenReturn(Optional.of(geocodingResult));
+
+        assertThrows(InternalException.class, () -> locationService.createLocation("InvalidData"));
+        verify(apiRequestService, never()).retrieveLocationData(any());
     }
 
     @Test
@@ -101,6 +164,7 @@ class LocationServiceTests {
         when(apiRequestService.retrieveLocationData(any())).thenReturn("{\"generationtime_ms\":1.2620687}");
 
         assertThrows(InternalException.class, () -> locationService.createLocation("InvalidData"));
+        verify(geocodingCache).putNotFound("InvalidData");
     }
 
     @Test
@@ -109,6 +173,7 @@ class LocationServiceTests {
                 .thenReturn("{\"error\": \"Service Unavailable\",\"status\": 503}");
 
         assertThrows(InternalException.class, () -> locationService.createLocation("TestCity"));
+        verify(geocodingCache, never()).putNotFound(any());
     }
 
     @Test
@@ -273,28 +338,44 @@ class LocationServiceTests {
     }
 
     @Test
-    void getAllLocations_manyEntries() {
+    void getLocations_manyEntries() {
         final Location location1 = new Location();
+        location1.setId(1);
         location1.setName("Vienna,Austria");
 
         final Location location2 = new Location();
+        location2.setId(2);
         location2.setName("Graz,Austria");
 
-        when(locationRepository.findAll()).thenReturn(List.of(location1, location2));
+        when(locationRepository.findByIdGreaterThanOrderByIdAsc(0, Limit.of(KeysetPage.MAX_LIMIT + 1)))
+                .thenReturn(List.of(location1, location2));
+
+        final KeysetPage<Location> page = locationService.getLocations(0, KeysetPage.MAX_LIMIT);
+
+        assertEquals(2, page.getItems().size());
+        assertEquals("Vienna,Austria", page.getItems().getFirst().getName());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getLocations_empty() {
+        when(locationRepository.findByIdGreaterThanOrderByIdAsc(0, Limit.of(KeysetPage.MAX_LIMIT + 1))).thenReturn(List.of());
 
-        final List<Location> locations = locationService.getAllLocations();
+        final KeysetPage<Location> page = locationService.getLocations(0, KeysetPage.MAX_LIMIT);
 
-        assertEquals(2, locations.size());
-        assertEquals("Vienna,Austria", locations.getFirst().getName());
+        assertEquals(0, page.getItems().size());
     }
 
     @Test
-    void getAllLocations_empty() {
-        when(locationRepository.findAll()).thenReturn(List.of());
+    void getLocations_page() {
+        final Location location = TestdataGenerator.generateLocationTestdataWithId();
+
+        when(locationRepository.findByIdGreaterThanOrderByIdAsc(0, Limit.of(101))).thenReturn(List.of(location));
 
-        final List<Location> locations = locationService.getAllLocations();
+        final KeysetPage<Location> page = locationService.getLocations(0, 100);
 
-        assertEquals(0, locations.size());
+        assertEquals(List.of(location), page.getItems());
+        assertNull(page.getNextCursor());
     }
 
     @Test
@@ -335,7 +416,7 @@ class LocationServiceTests {
     void getLocationByName_success() {
         final Location location = TestdataGenerator.generateLocationTestdataWithId();
 
-        when(locationRepository.findByNameContaining("Vienna")).thenReturn(List.of(location));
+        when(locationRepository.findByNameContaining("Vienna", Limit.of(1))).thenReturn(List.of(location));
 
         final Optional<Location> result = locationService.getLocationByName("Vienna");
 
@@ -344,7 +425,7 @@ class LocationServiceTests {
 
     @Test
     void getLocationByName_listEmpty() {
-        when(locationRepository.findByNameContaining("Vienna")).thenReturn(List.of());
+        when(locationRepository.findByNameContaining("Vienna", Limit.of(1))).thenReturn(List.of());
 
         final Optional<Location> result = locationService.getLocationByName("Vienna");
 
@@ -353,7 +434,7 @@ class LocationServiceTests {
 
     @Test
     void getLocationByName_databaseError() {
-        when(locationRepository.findByNameContaining("Vienna")).thenThrow(new RuntimeException("Database error"));
+        when(locationRepository.findByNameContaining("Vienna", Limit.of(1))).thenThrow(new RuntimeException("Database error"));
 
         assertThrows(RuntimeException.class, () -> locationService.getLocationByName("Vienna"));
     }
@@ -0,0 +1,118 @@
+package hs_burgenland.weather.services;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import hs_burgenland.weather.TestdataGenerator;
+import hs_burgenland.weather.entities.ForecastSeries;
+import hs_burgenland.weather.entities.Location;
+import hs_burgenland.weather.entities.WeatherRecord;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.logging.log4j.util.InternalException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OpenMeteoForecastParserTests {
+    private static final String VIENNA_FORECAST = "{\"latitude\":48.2,\"longitude\":16.38,\"generationtime_ms\":0.04," +
+            "\"utc_offset_seconds\":0,\"timezone\":\"GMT\",\"elevation\":196," +
+            "\"hourly_units\":{\"time\":\"iso8601\",\"temperature_2m\":\"°C\",\"relative_humidity_2m\":\"%\"}," +
+            "\"hourly\":{\"time\":[\"2025-02-13T00:00\",\"2025-02-13T01:00\",\"2025-02-13T02:00\"]," +
+            "\"temperature_2m\":[-0.2,-0.1,0],\"relative_humidity_2m\":[90,91,90]}}";
+
+    private static final String GRAZ_FORECAST = "{\"latitude\":47.06,\"longitude\":15.44," +
+            "\"hourly\":{\"time\":[\"2025-02-13T00:00\",\"2025-02-13T01:00\",\"2025-02-13T02:00\"]," +
+            "\"temperature_2m\":[5.2,5.0,4.9],\"relative_humidity_2m\":[70,71,72]}}";
+
+    private final OpenMeteoForecastParser parser = new OpenMeteoForecastParser(new JsonFactory());
+
+    private final Location vienna = TestdataGenerator.generateLocationTestdataWithId();
+
+    @Test
+    void parse_singleForecast() throws IOException {
+        final List<WeatherRecord> weatherRecords = parser.parse(vienna, VIENNA_FORECAST);
+
+        assertEquals(3, weatherRecords.size());
+        assertEquals(new WeatherRecord(LocalDateTime.of(2025, 2, 13, 0, 0), -0.2, 90), weatherRecords.get(0));
+        assertEquals(new WeatherRecord(LocalDateTime.of(2025, 2, 13, 2, 0), 0.0, 90), weatherRecords.get(2));
+    }
+
+    @Test
+    void parse_hourlyBeforeCoordinates() throws IOException {
+        final String reordered = "{\"hourly\":{\"relative_humidity_2m\":[90],\"temperature_2m\":[-0.2]," +
+                "\"time\":[\"2025-02-13T00:00\"]},\"longitude\":16.38,\"latitude\":48.2}";
+
+        final List<WeatherRecord> weatherRecords = parser.parse(vienna, reordered);
+
+        assertEquals(List.of(new WeatherRecord(LocalDateTime.of(2025, 2, 13, 0, 0), -0.2, 90)), weatherRecords);
+    }
+
+    @Test
+    void parse_multipleForecastsInRequestOrder() throws IOException {
+        final Location graz = TestdataGenerator.generateLocationTestdataWithId();
+        graz.setLatitude(47.066_67);
+        graz.setLongitude(15.45);
+
+        final List<ForecastSeries> forecasts =
+                parser.parse(List.of(vienna, graz), "[" + VIENNA_FORECAST + "," + GRAZ_FORECAST + "]");
+
+        assertEquals(2, forecasts.size());
+        assertEquals(-0.2f, forecasts.get(0).getTemperature(0));
+        assertEquals(5.2f, forecasts.get(1).getTemperature(0));
+    }
+
+    @Test
+    void parse_columnarStartAndStep() throws IOException {
+        final ForecastSeries forecastSeries = parser.parse(vienna, VIENNA_FORECAST);
+
+        assertEquals(ForecastSeries.toEpochSecond(LocalDateTime.of(2025, 2, 13, 0, 0)), forecastSeries.getStartEpochSecond());
+        assertEquals(3600, forecastSeries.getStepSeconds());
+        assertEquals(91, forecastSeries.getHumidity(1));
+    }
+
+    @Test
+    void parse_unevenTimes() {
+        final String uneven = VIENNA_FORECAST.replace("\"2025-02-13T02:00\"", "\"2025-02-13T03:00\"");
+        assertThrows(InternalException.class, () -> parser.parse(vienna, uneven));
+    }
+
+    @Test
+    void parse_timed() throws IOException {
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Metrics.addRegistry(meterRegistry);
+        try {
+            parser.parse(vienna, VIENNA_FORECAST);
+
+            assertEquals(1, meterRegistry.get(OpenMeteoForecastParser.JSON_PARSE_TIMER)
+                    .tag("payload", "forecast").timer().count());
+        } finally {
+            Metrics.removeRegistry(meterRegistry);
+        }
+    }
+
+    @Test
+    void parse_wrongLocation() {
+        assertThrows(InternalException.class, () -> parser.parse(vienna, GRAZ_FORECAST));
+    }
+
+    @Test
+    void parse_errorResponse() {
+        assertThrows(InternalException.class, () -> parser.parse(vienna, "{\"errormessage\": \"Connection error\"}"));
+    }
+
+    @Test
+    void parse_wrongNumberOfLocations() {
+        final List<Location> locations = List.of(vienna, vienna);
+        assertThrows(InternalException.class, () -> parser.parse(locations, VIENNA_FORECAST));
+    }
+
+    @Test
+    void parse_incompleteHourlyData() {
+        final String incomplete = VIENNA_FORECAST.replace("[90,91,90]", "[90,91]");
+        assertThrows(InternalException.class, () -> parser.parse(vienna, incomplete));
+    }
+}
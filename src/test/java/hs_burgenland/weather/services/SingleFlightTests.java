@@ -0,0 +1,76 @@
+package hs_burgenland.weather.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTests {
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void execute_concurrentCallersShareLoad() {
+        final CompletableFuture<String> load = new CompletableFuture<>();
+        final AtomicInteger loads = new AtomicInteger();
+
+        final CompletableFuture<String> first = singleFlight.execute("graz", () -> {
+            loads.incrementAndGet();
+            return load;
+        });
+        final CompletableFuture<String> second = singleFlight.execute("graz", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+
+        assertSame(first, second);
+        assertEquals(1, singleFlight.inFlightCount());
+
+        load.complete("forecast");
+
+        assertEquals("forecast", first.join());
+        assertEquals("forecast", second.join());
+        assertEquals(1, loads.get());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void execute_differentKeysLoadIndependently() {
+        final CompletableFuture<String> graz = singleFlight.execute("graz", CompletableFuture::new);
+        final CompletableFuture<String> vienna = singleFlight.execute("vienna", CompletableFuture::new);
+
+        assertNotSame(graz, vienna);
+        assertEquals(2, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void execute_failureReachesAllWaiters() {
+        final CompletableFuture<String> load = new CompletableFuture<>();
+
+        final CompletableFuture<String> first = singleFlight.execute("graz", () -> load);
+        final CompletableFuture<String> second = singleFlight.execute("graz", () -> load);
+
+        load.completeExceptionally(new IllegalStateException("Connection error"));
+
+        final CompletionException firstError = assertThrows(CompletionException.class, first::join);
+        final CompletionException secondError = assertThrows(CompletionException.class, second::join);
+        assertInstanceOf(IllegalStateException.class, firstError.getCause());
+        assertInstanceOf(IllegalStateException.class, secondError.getCause());
+    }
+
+    @Test
+    void execute_failureDoesNotPoisonLaterAttempts() {
+        final CompletableFuture<String> failed = singleFlight.execute("graz", () -> {
+            throw new IllegalStateException("Connection error");
+        });
+        assertTrue(failed.isCompletedExceptionally());
+        assertEquals(0, singleFlight.inFlightCount());
+
+        final CompletableFuture<String> retried =
+                singleFlight.execute("graz", () -> CompletableFuture.completedFuture("forecast"));
+
+        assertEquals("forecast", retried.join());
+    }
+}
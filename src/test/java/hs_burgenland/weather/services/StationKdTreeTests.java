@@ -0,0 +1,63 @@
+package hs_burgenland.weather.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StationKdTreeTests {
+    @Test
+    void nearest_empty() {
+        assertTrue(new StationKdTree(List.of()).nearest(48.2, 16.37).isEmpty());
+    }
+
+    @Test
+    void nearest_distanceInKilometers() {
+        final StationKdTree tree = new StationKdTree(List.of(
+                StationKdTree.Station.of("LOWW", 48.110_298, 16.5697),
+                StationKdTree.Station.of("LOWG", 46.9911, 15.4396)));
+
+        final StationKdTree.NearestStation nearest = tree.nearest(48.208_49, 16.372_08).orElseThrow();
+
+        assertEquals("LOWW", nearest.icao());
+        assertEquals(18.3, nearest.distanceKm(), 0.1);
+    }
+
+    @Test
+    void nearest_acrossAntimeridian() {
+        final StationKdTree tree = new StationKdTree(List.of(
+                StationKdTree.Station.of("EAST", 0, 179.9),
+                StationKdTree.Station.of("WEST", 0, 170)));
+
+        assertEquals("EAST", tree.nearest(0, -179.9).orElseThrow().icao());
+    }
+
+    @Test
+    void nearest_sameAsLinearScan() {
+        final Random random = new Random(42);
+        final List<StationKdTree.Station> stations = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            stations.add(StationKdTree.Station.of("S" + i, random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180));
+        }
+        final StationKdTree tree = new StationKdTree(stations);
+
+        for (int i = 0; i < 200; i++) {
+            final double[] target = StationKdTree.toPoint(random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180);
+            final String expected = stations.stream()
+                    .min(Comparator.comparingDouble(station -> squaredDistance(station.point(), target)))
+                    .orElseThrow().icao();
+
+            final double latitude = Math.toDegrees(Math.asin(target[2]));
+            final double longitude = Math.toDegrees(Math.atan2(target[1], target[0]));
+            assertEquals(expected, tree.nearest(latitude, longitude).orElseThrow().icao());
+        }
+    }
+
+    private static double squaredDistance(final double[] a, final double[] b) {
+        return (a[0] - b[0]) * (a[0] - b[0]) + (a[1] - b[1]) * (a[1] - b[1]) + (a[2] - b[2]) * (a[2] - b[2]);
+    }
+}
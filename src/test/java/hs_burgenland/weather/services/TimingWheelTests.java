@@ -0,0 +1,67 @@
+package hs_burgenland.weather.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTests {
+    private final TimingWheel<String> timingWheel = new TimingWheel<>(Duration.ofSeconds(1), 8, 0);
+
+    @Test
+    void advance_dueItemsOnly() {
+        timingWheel.schedule("graz", 2_000);
+        timingWheel.schedule("linz", 5_000);
+
+        assertEquals(List.of(), timingWheel.advance(1_999));
+        assertEquals(List.of("graz"), timingWheel.advance(2_000));
+        assertEquals(1, timingWheel.size());
+        assertEquals(List.of("linz"), timingWheel.advance(10_000));
+        assertEquals(0, timingWheel.size());
+    }
+
+    @Test
+    void advance_deadlineBeyondOneRevolution() {
+        timingWheel.schedule("graz", 20_000);
+
+        assertEquals(List.of(), timingWheel.advance(12_000));
+        assertEquals(List.of(), timingWheel.advance(19_999));
+        assertEquals(List.of("graz"), timingWheel.advance(20_000));
+    }
+
+    @Test
+    void advance_sameSlotDifferentRounds() {
+        timingWheel.schedule("graz", 3_000);
+        timingWheel.schedule("linz", 11_000);
+        timingWheel.schedule("wien", 19_000);
+
+        assertEquals(List.of("graz"), timingWheel.advance(3_000));
+        assertEquals(List.of("linz"), timingWheel.advance(11_000));
+        assertEquals(List.of("wien"), timingWheel.advance(19_000));
+    }
+
+    @Test
+    void schedule_pastDeadlineDueWithNextTick() {
+        timingWheel.advance(5_000);
+        timingWheel.schedule("graz", 1_000);
+
+        assertEquals(List.of(), timingWheel.advance(5_999));
+        assertEquals(List.of("graz"), timingWheel.advance(6_000));
+    }
+
+    @Test
+    void schedule_deadlineWithinTickRoundedUp() {
+        timingWheel.schedule("graz", 2_500);
+
+        assertEquals(List.of(), timingWheel.advance(2_999));
+        assertEquals(List.of("graz"), timingWheel.advance(3_000));
+    }
+
+    @Test
+    void constructor_wheelSizeNotPowerOfTwo() {
+        final Duration tick = Duration.ofSeconds(1);
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel<String>(tick, 10, 0));
+    }
+}
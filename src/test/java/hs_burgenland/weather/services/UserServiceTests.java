@@ -1,6 +1,7 @@
 package hs_burgenland.weather.services;
 
 import hs_burgenland.weather.TestdataGenerator;
+import hs_burgenland.weather.entities.KeysetPage;
 import hs_burgenland.weather.entities.User;
 import hs_burgenland.weather.exceptions.EntityAlreadyExistingException;
 import hs_burgenland.weather.exceptions.EntityNotFoundException;
@@ -11,6 +12,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -127,35 +129,50 @@ class UserServiceTests {
 
 
     @Test
-    void getAllUsers_success() {
+    void getUsers_emptyList() {
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(0, Limit.of(KeysetPage.MAX_LIMIT + 1))).thenReturn(new ArrayList<>());
+
+        final KeysetPage<User> page = userService.getUsers(0, KeysetPage.MAX_LIMIT);
+
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getUsers_nextCursorWhenMoreRows() {
         final List<User> users = new ArrayList<>();
-        users.add(new User());
-        users.add(new User());
+        for (int id = 6; id <= 8; id++) {
+            final User user = new User();
+            user.setId(id);
+            users.add(user);
+        }
 
-        when(userRepository.findAll()).thenReturn(users);
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(5, Limit.of(3))).thenReturn(users);
 
-        final List<User> foundUsers = userService.getAllUsers();
+        final KeysetPage<User> page = userService.getUsers(5, 2);
 
-        assertEquals(2, foundUsers.size());
-        verify(userRepository, times(1)).findAll();
+        assertEquals(2, page.getItems().size());
+        assertEquals(7, page.getNextCursor());
     }
 
     @Test
-    void getAllUsers_emptyList() {
-        when(userRepository.findAll()).thenReturn(new ArrayList<>());
+    void getUsers_lastPage() {
+        final User user = TestdataGenerator.generateUserTestdataWithId();
+
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(0, Limit.of(3))).thenReturn(List.of(user));
 
-        final List<User> foundUsers = userService.getAllUsers();
+        final KeysetPage<User> page = userService.getUsers(0, 2);
 
-        assertTrue(foundUsers.isEmpty());
-        verify(userRepository, times(1)).findAll();
+        assertEquals(List.of(user), page.getItems());
+        assertNull(page.getNextCursor());
     }
 
     @Test
-    void getAllUsers_databaseError() {
-        when(userRepository.findAll()).thenThrow(new RuntimeException("Database error"));
+    void getUsers_databaseError() {
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(0, Limit.of(KeysetPage.MAX_LIMIT + 1)))
+                .thenThrow(new RuntimeException("Database error"));
 
-        assertThrows(RuntimeException.class, userService::getAllUsers);
-        verify(userRepository, times(1)).findAll();
+        assertThrows(RuntimeException.class, () -> userService.getUsers(0, KeysetPage.MAX_LIMIT));
     }
 
     @Test
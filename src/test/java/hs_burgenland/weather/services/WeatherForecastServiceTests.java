@@ -2,38 +2,82 @@ package hs_burgenland.weather.services;
 
 import hs_burgenland.weather.TestdataGenerator;
 import hs_burgenland.weather.entities.Favorite;
+import hs_burgenland.weather.entities.FavoriteForecast;
+import hs_burgenland.weather.entities.ForecastSeries;
 import hs_burgenland.weather.entities.Location;
 import hs_burgenland.weather.entities.WeatherRecord;
 import hs_burgenland.weather.exceptions.EntityNotFoundException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import org.apache.logging.log4j.util.InternalException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @SpringBootTest
 class WeatherForecastServiceTests {
+    private static final String FORECAST_RESPONSE = "{\"latitude\":48.2,\"longitude\":16.38,\"generationtime_ms\":0.0472068786621094," +
+            "\"utc_offset_seconds\":0,\"timezone\":\"GMT\",\"timezone_abbreviation\":\"GMT\"," +
+            "\"elevation\":196,\"hourly_units\":{\"time\":\"iso8601\",\"temperature_2m\":\"°C\"," +
+            "\"relative_humidity_2m\":\"%\"},\"hourly\":{\"time\":[\"2025-02-13T00:00\"," +
+            "\"2025-02-13T01:00\",\"2025-02-13T02:00\",\"2025-02-13T03:00\",\"2025-02-13T04:00\"," +
+            "\"2025-02-13T05:00\",\"2025-02-13T06:00\",\"2025-02-13T07:00\",\"2025-02-13T08:00\"," +
+            "\"2025-02-13T09:00\",\"2025-02-13T10:00\",\"2025-02-13T11:00\",\"2025-02-13T12:00\"," +
+            "\"2025-02-13T13:00\",\"2025-02-13T14:00\",\"2025-02-13T15:00\",\"2025-02-13T16:00\"," +
+            "\"2025-02-13T17:00\",\"2025-02-13T18:00\",\"2025-02-13T19:00\",\"2025-02-13T20:00\"," +
+            "\"2025-02-13T21:00\",\"2025-02-13T22:00\",\"2025-02-13T23:00\"],\"temperature_2m\":[-0.2," +
+            "-0.1,0,0,0,0.1,0.3,0.4,0.6,0.7,1,1.6,1.4,1.9,2.3,1.9,1.9,1.9,1.7,1.9,1.9,2.2,2.4,2.9]," +
+            "\"relative_humidity_2m\":[90,91,90,91,92,93,89,94,93,91,89,85,88,87,85,87,88,89,90,89,89,87,86,84]}}";
+
+    private static final String GRAZ_FORECAST_RESPONSE = FORECAST_RESPONSE
+            .replace("\"latitude\":48.2,\"longitude\":16.38", "\"latitude\":47.06,\"longitude\":15.44")
+            .replace("\"temperature_2m\":[-0.2,", "\"temperature_2m\":[5.2,");
+
     @Mock
     LocationService locationService;
 
     @Mock
     ApiRequestService apiRequestService;
 
+    @Spy
+    ForecastCache forecastCache = new ForecastCache(100, Duration.ofHours(1), Duration.ZERO, Duration.ZERO,
+            Duration.ofDays(1), Clock.systemUTC());
+
     @InjectMocks
     WeatherForecastService weatherForecastService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(weatherForecastService, "blockingScheduler", Schedulers.immediate());
     }
 
     @Test
@@ -44,18 +88,7 @@ class WeatherForecastServiceTests {
 
         when(locationService.getLocationById(1)).thenReturn(location);
         when(apiRequestService.retrieveWeatherForecast(location))
-                .thenReturn("{\"latitude\":48.2,\"longitude\":16.38,\"generationtime_ms\":0.0472068786621094," +
-                        "\"utc_offset_seconds\":0,\"timezone\":\"GMT\",\"timezone_abbreviation\":\"GMT\"," +
-                        "\"elevation\":196,\"hourly_units\":{\"time\":\"iso8601\",\"temperature_2m\":\"°C\"," +
-                        "\"relative_humidity_2m\":\"%\"},\"hourly\":{\"time\":[\"2025-02-13T00:00\"," +
-                        "\"2025-02-13T01:00\",\"2025-02-13T02:00\",\"2025-02-13T03:00\",\"2025-02-13T04:00\"," +
-                        "\"2025-02-13T05:00\",\"2025-02-13T06:00\",\"2025-02-13T07:00\",\"2025-02-13T08:00\"," +
-                        "\"2025-02-13T09:00\",\"2025-02-13T10:00\",\"2025-02-13T11:00\",\"2025-02-13T12:00\"," +
-                        "\"2025-02-13T13:00\",\"2025-02-13T14:00\",\"2025-02-13T15:00\",\"2025-02-13T16:00\"," +
-                        "\"2025-02-13T17:00\",\"2025-02-13T18:00\",\"2025-02-13T19:00\",\"2025-02-13T20:00\"," +
-                        "\"2025-02-13T21:00\",\"2025-02-13T22:00\",\"2025-02-13T23:00\"],\"temperature_2m\":[-0.2," +
-                        "-0.1,0,0,0,0.1,0.3,0.4,0.6,0.7,1,1.6,1.4,1.9,2.3,1.9,1.9,1.9,1.7,1.9,1.9,2.2,2.4,2.9]," +
-                        "\"relative_humidity_2m\":[90,91,90,91,92,93,89,94,93,91,89,85,88,87,85,87,88,89,90,89,89,87,86,84]}}");
+                .thenReturn(FORECAST_RESPONSE);
 
         final List<WeatherRecord> result = weatherForecastService.getWeatherForecast(favorite);
 
@@ -67,6 +100,317 @@ class WeatherForecastServiceTests {
         verify(apiRequestService, times(1)).retrieveWeatherForecast(location);
     }
 
+    @Test
+    void getWeatherForecast_servedFromCache() throws EntityNotFoundException {
+        final Favorite favorite = TestdataGenerator.generateFavoriteTestdataWithId();
+
+        final Location location = TestdataGenerator.generateLocationTestdataWithId();
+
+        when(locationService.getLocationById(1)).thenReturn(location);
+        when(apiRequestService.retrieveWeatherForecast(location)).thenReturn(FORECAST_RESPONSE);
+
+        final List<WeatherRecord> firstResult = weatherForecastService.getWeatherForecast(favorite);
+        final List<WeatherRecord> secondResult = weatherForecastService.getWeatherForecast(favorite);
+
+        assertEquals(firstResult, secondResult);
+        assertEquals(1, forecastCache.stats().hitCount());
+        assertEquals(1, forecastCache.stats().missCount());
+        verify(locationService, times(2)).getLocationById(1);
+        verify(apiRequestService, times(1)).retrieveWeatherForecast(location);
+    }
+
+    @Test
+    void getWeatherForecast_openmeteoErrorNotCached() throws EntityNotFoundException {
+        final Favorite favorite = TestdataGenerator.generateFavoriteTestdataWithId();
+
+        final Location location = TestdataGenerator.generateLocationTestdataWithId();
+
+        when(locationService.getLocationById(1)).thenReturn(location);
+        when(apiRequestService.retrieveWeatherForecast(location))
+                .thenReturn("{\"errormessage\": \"Connection error\"}")
+                .thenReturn(FORECAST_RESPONSE);
+
+        assertThrows(InternalException.class, () -> weatherForecastService.getWeatherForecast(favorite));
+        assertEquals(24, weatherForecastService.getWeatherForecast(favorite).size());
+        verify(apiRequestService, times(2)).retrieveWeatherForecast(location);
+    }
+
+    @Test
+    void getWeatherForecast_concurrentRequestsShareUpstreamCall() throws Exception {
+        final Favorite favorite = TestdataGenerator.generateFavoriteTestdataWithId();
+
+        final Location location = TestdataGenerator.generateLocationTestdataWithId();
+        final CountDownLatch upstreamCalled = new CountDownLatch(1);
+        final CountDownLatch releaseUpstream = new CountDownLatch(1);
+
+        when(locationService.getLocationById(1)).thenReturn(location);
+        when(apiRequestService.retrieveWeatherForecast(location)).thenAnswer(invocation -> {
+            upstreamCalled.countDown();
+            releaseUpstream.await(5, TimeUnit.SECONDS);
+            return FORECAST_RESPONSE;
+        });
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<ForecastSeries>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> weatherForecastService.getWeatherForecast(favorite)));
+            }
+            assertTrue(upstreamCalled.await(5, TimeUnit.SECONDS));
+            releaseUpstream.countDown();
+
+            for (final Future<ForecastSeries> result : results) {
+                assertEquals(24, result.get(5, TimeUnit.SECONDS).size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(apiRequestService, times(1)).retrieveWeatherForecast(location);
+    }
+
+    @Test
+    void getWeatherForecast_lastGoodServedStaleWhenCircuitBreakerOpen() throws EntityNotFoundException {
+        final Favorite favorite = TestdataGenerator.generateFavoriteTestdataWithId();
+
+        final Location location = TestdataGenerator.generateLocationTestdataWithId();
+
+        when(locationService.getLocationById(1)).thenReturn(location);
+        when(apiRequestService.retrieveWeatherForecast(location))
+                .thenReturn(FORECAST_RESPONSE)
+                .thenThrow(createCallNotPermittedException());
+
+        final ForecastSeries freshForecast = weatherForecastService.getWeatherForecast(favorite);
+        forecastCache.invalidate(location);
+        final ForecastSeries staleForecast = weatherForecastService.getWeatherForecast(favorite);
+
+        assertFalse(freshForecast.isStale());
+        assertTrue(staleForecast.isStale());
+        assertEquals(freshForecast, staleForecast);
+        assertTrue(forecastCache.get(location).isEmpty());
+    }
+
+    @Test
+    void getWeatherForecast_circuitBreakerOpenWithoutLastGood() throws EntityNotFoundException {
+        final Favorite favorite = TestdataGenerator.generateFavoriteTestdataWithId();
+
+        final Location location = TestdataGenerator.generateLocationTestdataWithId();
+
+        when(locationService.getLocationById(1)).thenReturn(location);
+        when(apiRequestService.retrieveWeatherForecast(location)).thenThrow(createCallNotPermittedException());
+
+        assertThrows(CallNotPermittedException.class, () -> weatherForecastService.getWeatherForecast(favorite));
+    }
+
+    @Test
+    void getWeatherForecastReactive_lastGoodServedStaleOnUpstreamError() throws EntityNotFoundException {
+        final Favorite favorite = TestdataGenerator.generateFavoriteTestdataWithId();
+
+        final Location location = TestdataGenerator.generateLocationTestdataWithId();
+        forecastCache.put(location, TestdataGenerator.generateForecastSeries());
+        forecastCache.invalidate(location);
+
+        when(locationService.getLocationById(1)).thenReturn(location);
+        when(apiRequestService.retrieveWeatherForecastReactive(location))
+                .thenReturn(Mono.error(createCallNotPermittedException()));
+
+        final ForecastSeries result = weatherForecastService.getWeatherForecastReactive(favorite).block();
+
+        assertTrue(result.isStale());
+        assertEquals(TestdataGenerator.generateWeatherRecords(), result);
+    }
+
+    @Test
+    void getWeatherForecastReactive_Success() throws EntityNotFoundException {
+        final Favorite favorite = TestdataGenerator.generateFavoriteTestdataWithId();
+
+        final Location location = TestdataGenerator.generateLocationTestdataWithId();
+
+        when(locationService.getLocationById(1)).thenReturn(location);
+        when(apiRequestService.retrieveWeatherForecastReactive(location)).thenReturn(Mono.just(FORECAST_RESPONSE));
+
+        final List<WeatherRecord> result = weatherForecastService.getWeatherForecastReactive(favorite).block();
+
+        assertEquals(24, result.size());
+        assertEquals(-0.2, result.getFirst().getTemperature());
+        assertEquals(90, result.getFirst().getHumidity());
+        verify(apiRequestService, times(1)).retrieveWeatherForecastReactive(location);
+        verify(apiRequestService, never()).retrieveWeatherForecast(location);
+    }
+
+    @Test
+    void getWeatherForecastReactive_sharesCacheWithBlockingPath() throws EntityNotFoundException {
+        final Favorite favorite = TestdataGenerator.generateFavoriteTestdataWithId();
+
+        final Location location = TestdataGenerator.generateLocationTestdataWithId();
+
+        when(locationService.getLocationById(1)).thenReturn(location);
+        when(apiRequestService.retrieveWeatherForecast(location)).thenReturn(FORECAST_RESPONSE);
+
+        weatherForecastService.getWeatherForecast(favorite);
+        final List<WeatherRecord> result = weatherForecastService.getWeatherForecastReactive(favorite).block();
+
+        assertEquals(24, result.size());
+        verify(apiRequestService, never()).retrieveWeatherForecastReactive(location);
+    }
+
+    @Test
+    void getWeatherForecastReactive_locationIdNotExisting() throws EntityNotFoundException {
+        final Favorite favorite = TestdataGenerator.generateFavoriteTestdataWithId();
+
+        when(locationService.getLocationById(1)).thenThrow(new EntityNotFoundException("Location with id 1 not found."));
+
+        final Mono<ForecastSeries> result = weatherForecastService.getWeatherForecastReactive(favorite);
+
+        final RuntimeException exception = assertThrows(RuntimeException.class, result::block);
+        assertInstanceOf(EntityNotFoundException.class, Exceptions.unwrap(exception));
+        verify(apiRequestService, never()).retrieveWeatherForecastReactive(any());
+    }
+
+    @Test
+    void getWeatherForecastReactive_openmeteoError() throws EntityNotFoundException {
+        final Favorite favorite = TestdataGenerator.generateFavoriteTestdataWithId();
+
+        final Location location = TestdataGenerator.generateLocationTestdataWithId();
+
+        when(locationService.getLocationById(1)).thenReturn(location);
+        when(apiRequestService.retrieveWeatherForecastReactive(location))
+                .thenReturn(Mono.just("{\"errormessage\": \"Connection error\"}"));
+
+        final Mono<ForecastSeries> result = weatherForecastService.getWeatherForecastReactive(favorite);
+
+        assertThrows(InternalException.class, result::block);
+        assertTrue(forecastCache.get(location).isEmpty());
+    }
+
+    @Test
+    void getWeatherForecasts_oneUpstreamCallForAllLocations() {
+        final Favorite home = TestdataGenerator.generateFavoriteTestdataWithId();
+        final Favorite work = createGrazFavorite();
+        final Favorite homeTwice = TestdataGenerator.generateFavoriteTestdataWithId();
+        homeTwice.setId(3);
+        homeTwice.setName("Parents");
+
+        when(apiRequestService.retrieveWeatherForecasts(anyList()))
+                .thenReturn("[" + FORECAST_RESPONSE + "," + GRAZ_FORECAST_RESPONSE + "]");
+
+        final List<FavoriteForecast> result = weatherForecastService.getWeatherForecasts(List.of(home, work, homeTwice));
+
+        assertEquals(3, result.size());
+        assertEquals(1, result.get(0).getFavoriteId());
+        assertEquals("Home", result.get(0).getName());
+        assertEquals(-0.2, result.get(0).getForecast().getFirst().getTemperature());
+        assertEquals(2, result.get(1).getFavoriteId());
+        assertEquals(5.2, result.get(1).getForecast().getFirst().getTemperature());
+        assertEquals(result.get(0).getForecast(), result.get(2).getForecast());
+
+        final ArgumentCaptor<List<Location>> captor = ArgumentCaptor.forClass(List.class);
+        verify(apiRequestService, times(1)).retrieveWeatherForecasts(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        verify(locationService, never()).getLocationById(anyInt());
+    }
+
+    @Test
+    void getWeatherForecasts_onlyMissingLocationsFetched() {
+        final Favorite home = TestdataGenerator.generateFavoriteTestdataWithId();
+        final Favorite work = createGrazFavorite();
+        forecastCache.put(home.getLocation(), TestdataGenerator.generateForecastSeries());
+
+        when(apiRequestService.retrieveWeatherForecasts(List.of(work.getLocation()))).thenReturn(GRAZ_FORECAST_RESPONSE);
+
+        final List<FavoriteForecast> result = weatherForecastService.getWeatherForecasts(List.of(home, work));
+
+        assertEquals(TestdataGenerator.generateWeatherRecords(), result.get(0).getForecast());
+        assertEquals(5.2, result.get(1).getForecast().getFirst().getTemperature());
+        assertTrue(forecastCache.get(work.getLocation()).isPresent());
+        verify(apiRequestService, times(1)).retrieveWeatherForecasts(List.of(work.getLocation()));
+    }
+
+    @Test
+    void getWeatherForecasts_allCached() {
+        final Favorite home = TestdataGenerator.generateFavoriteTestdataWithId();
+        forecastCache.put(home.getLocation(), TestdataGenerator.generateForecastSeries());
+
+        final List<FavoriteForecast> result = weatherForecastService.getWeatherForecasts(List.of(home));
+
+        assertEquals(24, result.getFirst().getForecast().size());
+        verify(apiRequestService, never()).retrieveWeatherForecasts(anyList());
+    }
+
+    @Test
+    void getWeatherForecasts_wrongNumberOfLocations() {
+        final Favorite home = TestdataGenerator.generateFavoriteTestdataWithId();
+        final Favorite work = createGrazFavorite();
+
+        when(apiRequestService.retrieveWeatherForecasts(anyList())).thenReturn(FORECAST_RESPONSE);
+
+        final List<Favorite> favorites = List.of(home, work);
+        assertThrows(InternalException.class, () -> weatherForecastService.getWeatherForecasts(favorites));
+        assertTrue(forecastCache.get(home.getLocation()).isEmpty());
+    }
+
+    @Test
+    void getWeatherForecasts_lastGoodServedStaleOnUpstreamError() {
+        final Favorite home = TestdataGenerator.generateFavoriteTestdataWithId();
+        forecastCache.put(home.getLocation(), TestdataGenerator.generateForecastSeries());
+        forecastCache.invalidate(home.getLocation());
+
+        when(apiRequestService.retrieveWeatherForecasts(anyList())).thenThrow(createCallNotPermittedException());
+
+        final List<FavoriteForecast> result = weatherForecastService.getWeatherForecasts(List.of(home));
+
+        assertTrue(result.getFirst().isStale());
+        assertEquals(24, result.getFirst().getForecast().size());
+    }
+
+    @Test
+    void getWeatherForecasts_upstreamErrorWithoutLastGoodForEveryLocation() {
+        final Favorite home = TestdataGenerator.generateFavoriteTestdataWithId();
+        final Favorite work = createGrazFavorite();
+        forecastCache.put(home.getLocation(), TestdataGenerator.generateForecastSeries());
+        forecastCache.invalidate(home.getLocation());
+
+        when(apiRequestService.retrieveWeatherForecasts(anyList())).thenThrow(createCallNotPermittedException());
+
+        final List<Favorite> favorites = List.of(home, work);
+        assertThrows(CallNotPermittedException.class, () -> weatherForecastService.getWeatherForecasts(favorites));
+    }
+
+    @Test
+    void refreshWeatherForecasts_cachedEntriesReplaced() {
+        final Favorite home = TestdataGenerator.generateFavoriteTestdataWithId();
+        forecastCache.put(home.getLocation(), TestdataGenerator.generateForecastSeries());
+
+        when(apiRequestService.retrieveWeatherForecastsReactive(List.of(home.getLocation())))
+                .thenReturn(Mono.just(FORECAST_RESPONSE.replace("\"temperature_2m\":[-0.2,", "\"temperature_2m\":[-1.5,")));
+
+        final List<ForecastSeries> result =
+                weatherForecastService.refreshWeatherForecasts(List.of(home.getLocation())).block();
+
+        assertEquals(1, result.size());
+        assertEquals(-1.5, forecastCache.get(home.getLocation()).orElseThrow().getFirst().getTemperature());
+    }
+
+    private static CallNotPermittedException createCallNotPermittedException() {
+        return CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("open-meteo"));
+    }
+
+    private static Favorite createGrazFavorite() {
+        final Location graz = new Location();
+        graz.setId(2);
+        graz.setName("Graz,Austria");
+        graz.setLatitude(47.066_67);
+        graz.setLongitude(15.45);
+        graz.setElevation(353.0);
+        graz.setIcao("LOWG");
+
+        final Favorite favorite = TestdataGenerator.generateFavoriteTestdataWithId();
+        favorite.setId(2);
+        favorite.setName("Work");
+        favorite.setLocation(graz);
+        return favorite;
+    }
+
     @Test
     void getWeatherForecast_locationIdNotExisting() throws EntityNotFoundException {
         final Favorite favorite = TestdataGenerator.generateFavoriteTestdataWithId();